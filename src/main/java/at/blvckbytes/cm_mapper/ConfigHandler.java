@@ -26,35 +26,50 @@ package at.blvckbytes.cm_mapper;
 
 import at.blvckbytes.cm_mapper.cm.ComponentExpression;
 import at.blvckbytes.cm_mapper.cm.ComponentMarkup;
+import at.blvckbytes.cm_mapper.cm.ParseCache;
 import at.blvckbytes.cm_mapper.mapper.ConfigMapper;
 import at.blvckbytes.cm_mapper.mapper.MappingError;
 import at.blvckbytes.cm_mapper.mapper.YamlConfig;
+import at.blvckbytes.cm_mapper.section.item.MaterialResolver;
 import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
-import at.blvckbytes.component_markup.markup.ast.tag.built_in.BuiltInTagRegistry;
-import at.blvckbytes.component_markup.markup.parser.MarkupParseException;
-import at.blvckbytes.component_markup.markup.parser.MarkupParser;
 import at.blvckbytes.component_markup.util.ErrorScreen;
 import at.blvckbytes.component_markup.util.InputView;
 import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
-import com.cryptomorin.xseries.XMaterial;
 import com.google.common.base.Charsets;
 import org.bukkit.Material;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ConfigHandler {
 
+  record LoadedConfig(ConfigMapper mapper, FileFingerprint fingerprint) {}
+
   private final Logger logger;
   private final Plugin plugin;
 
   private final String folderName;
   private final File folder;
 
+  private final Map<Path, List<ConfigKeeper<?>>> keepersByFile;
+  private final Map<String, FileFingerprint> fingerprintsByFileName;
+  private final Map<String, ParseCache> parseCachesByFileName;
+
+  // Loads write back to the file when extending it, and thus never run concurrently for the same file
+  private final Map<String, Object> loadLocksByFileName;
+  private final Executor workerExecutor;
+  private final Executor mainThreadExecutor;
+
+  private @Nullable FolderWatcher folderWatcher;
+
   public ConfigHandler(Plugin plugin, String folderName) {
     this.plugin = plugin;
     this.logger = plugin.getLogger();
@@ -62,12 +77,73 @@ public class ConfigHandler {
 
     this.folder = new File(plugin.getDataFolder(), folderName);
 
+    this.keepersByFile = new ConcurrentHashMap<>();
+    this.fingerprintsByFileName = new ConcurrentHashMap<>();
+    this.parseCachesByFileName = new ConcurrentHashMap<>();
+    this.loadLocksByFileName = new ConcurrentHashMap<>();
+    this.workerExecutor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+    this.mainThreadExecutor = task -> plugin.getServer().getScheduler().runTask(plugin, task);
+
     if (!this.folder.exists()) {
       if (!this.folder.mkdirs())
         throw new IllegalStateException("Could not create directories for " + this.folder);
     }
   }
 
+  /**
+   * Watch the folder for changes of files which keepers have been created for, and reload only
+   * those keepers asynchronously whose file has been changed, once it hasn't been written to
+   * for the debounce-duration, as editors tend to write a file multiple times when saving.
+   * Only files which reside directly within the folder are watched.
+   * @param debounceMillis Duration in milliseconds a file has to remain untouched before reloading
+   */
+  public synchronized void enableHotReload(long debounceMillis) throws IOException {
+    if (this.folderWatcher != null)
+      throw new IllegalStateException("Hot reloading has already been enabled");
+
+    FolderWatcher newFolderWatcher = new FolderWatcher(
+      this.folder.toPath(), "ConfigHandler-HotReload" + folderName, debounceMillis,
+      keepersByFile::containsKey, this::reloadKeepers, logger
+    );
+
+    this.folderWatcher = newFolderWatcher;
+
+    newFolderWatcher.start();
+  }
+
+  /**
+   * Stop watching the folder for changes, which should be called when the plugin is being disabled
+   */
+  public synchronized void disableHotReload() {
+    if (this.folderWatcher == null)
+      return;
+
+    this.folderWatcher.close();
+    this.folderWatcher = null;
+  }
+
+  void registerKeeper(String fileName, ConfigKeeper<?> keeper) {
+    keepersByFile.computeIfAbsent(resolveFilePath(fileName), key -> new CopyOnWriteArrayList<>()).add(keeper);
+  }
+
+  private Path resolveFilePath(String fileName) {
+    return this.folder.toPath().resolve(fileName).toAbsolutePath().normalize();
+  }
+
+  private void reloadKeepers(Path filePath) {
+    var keepers = keepersByFile.get(filePath);
+
+    if (keepers == null)
+      return;
+
+    for (var keeper : keepers) {
+      keeper.reloadAsync(workerExecutor, mainThreadExecutor).whenComplete((rootSection, e) -> {
+        if (e != null)
+          logger.log(Level.SEVERE, "Could not hot-reload the configuration " + folder.toPath().relativize(filePath), e);
+      });
+    }
+  }
+
   private String getPluginResourcePath(String fileName) {
     return folderName.substring(1) + "/" + fileName;
   }
@@ -93,21 +169,62 @@ public class ConfigHandler {
     }
   }
 
-  private void saveConfig(YamlConfig config, String fileName) throws Exception {
+  private FileFingerprint saveConfig(YamlConfig config, String fileName) throws Exception {
     File file = new File(this.folder, fileName);
 
     if (file.exists() && !file.isFile())
       throw new IllegalStateException("Tried to write file; unexpected directory at " + file);
 
+    var contentsStream = new ByteArrayOutputStream();
+
     try (
-      FileOutputStream outputStream = new FileOutputStream(file);
-      OutputStreamWriter outputWriter = new OutputStreamWriter(outputStream)
+      OutputStreamWriter outputWriter = new OutputStreamWriter(contentsStream)
     ) {
       config.save(outputWriter);
     }
+
+    byte[] contents = contentsStream.toByteArray();
+
+    try (
+      FileOutputStream outputStream = new FileOutputStream(file)
+    ) {
+      outputStream.write(contents);
+    }
+
+    return FileFingerprint.of(contents, file.lastModified());
+  }
+
+  /**
+   * @param fileName Name of the file within the folder
+   * @return Whether the file's contents have changed since it has last been loaded, true if it has not yet been loaded
+   */
+  public boolean hasChangedSinceLoad(String fileName) throws IOException {
+    return hasChangedSince(fileName, fingerprintsByFileName.get(fileName));
+  }
+
+  boolean hasChangedSince(String fileName, @Nullable FileFingerprint fingerprint) throws IOException {
+    return fingerprint == null || !fingerprint.matches(new File(this.folder, fileName));
   }
 
   public ConfigMapper loadConfig(String fileName) throws Exception {
+    return loadConfigWithFingerprint(fileName).mapper();
+  }
+
+  /**
+   * @param fileName Name of the file within the folder
+   * @return Lock which all loads of the given file hold, which callers may also hold while mapping its sections
+   */
+  Object getLoadLock(String fileName) {
+    return loadLocksByFileName.computeIfAbsent(fileName, key -> new Object());
+  }
+
+  LoadedConfig loadConfigWithFingerprint(String fileName) throws Exception {
+    synchronized (getLoadLock(fileName)) {
+      return loadConfigWithFingerprintLocked(fileName);
+    }
+  }
+
+  private LoadedConfig loadConfigWithFingerprintLocked(String fileName) throws Exception {
     boolean hasBeenCreated = false;
 
     File file = new File(this.folder, fileName);
@@ -120,23 +237,31 @@ public class ConfigHandler {
       hasBeenCreated = true;
     }
 
+    // Taken before reading, such that a write in between is never mistaken for the contents read
+    long lastModified = file.lastModified();
+    byte[] contents = Files.readAllBytes(file.toPath());
+
     try (
-      var inputStream = new FileInputStream(file);
+      var inputStream = new ByteArrayInputStream(contents);
       var inputStreamReader = new InputStreamReader(inputStream, Charsets.UTF_8)
     ) {
       YamlConfig config = new YamlConfig();
 
       config.load(inputStreamReader);
 
+      FileFingerprint fingerprint = FileFingerprint.of(contents, lastModified);
+
       if (!hasBeenCreated) {
         int numExtendedKeys = extendConfig(fileName, config);
 
         if (numExtendedKeys > 0) {
           this.logger.log(Level.INFO, "Extended " + numExtendedKeys + " new keys on the configuration " + fileName);
-          saveConfig(config, fileName);
+          fingerprint = saveConfig(config, fileName);
         }
       }
 
+      fingerprintsByFileName.put(fileName, fingerprint);
+
       var interpreterLogger = new InterpreterLogger() {
         @Override
         public void log(InputView view, int position, String message, @Nullable Throwable e) {
@@ -148,6 +273,10 @@ public class ConfigHandler {
         }
       };
 
+      // Parse results are kept across reloads, as most of a file's text tends to stay the same
+      var parseCache = parseCachesByFileName.computeIfAbsent(fileName, key -> new ParseCache());
+      parseCache.nextGeneration();
+
       var baseEnvironment = new InterpretationEnvironment();
 
       var globalLookupTable = new HashMap<String, Object>();
@@ -157,7 +286,7 @@ public class ConfigHandler {
         for (var entry : map.entrySet()) {
           var key = String.valueOf(entry.getKey());
 
-          globalLookupTable.put(key, parseLeafNodes(entry.getValue(), interpreterLogger));
+          globalLookupTable.put(key, parseLeafNodes(entry.getValue(), parseCache, interpreterLogger));
         }
       }
 
@@ -172,49 +301,54 @@ public class ConfigHandler {
         }
       }
 
-      return new ConfigMapper(config, baseEnvironment, interpreterLogger, (input, type) -> {
-        if (type == ComponentMarkup.class)
-          return new ComponentMarkup(String.valueOf(input), baseEnvironment, interpreterLogger);
+      var mapper = new ConfigMapper(config, baseEnvironment, interpreterLogger, (input, type) -> {
+        if (type == ComponentMarkup.class) {
+          var markup = String.valueOf(input);
+          return new ComponentMarkup(markup, parseCache.parseMarkup(markup, interpreterLogger), baseEnvironment, interpreterLogger);
+        }
 
         if (type == ComponentExpression.class)
-          return new ComponentExpression(String.valueOf(input), baseEnvironment, interpreterLogger);
+          return new ComponentExpression(parseCache.parseExpression(String.valueOf(input), interpreterLogger), baseEnvironment, interpreterLogger);
 
         if (type == Material.class) {
-          var materialExpression = new ComponentMarkup(String.valueOf(input), baseEnvironment, interpreterLogger);
+          var materialMarkup = String.valueOf(input);
+          var materialExpression = new ComponentMarkup(materialMarkup, parseCache.parseMarkup(materialMarkup, interpreterLogger), baseEnvironment, interpreterLogger);
           var materialString = materialExpression.asPlainString(null);
-          var xMaterial = XMaterial.matchXMaterial(materialString);
+          var material = MaterialResolver.resolve(materialString);
 
-          if (xMaterial.isEmpty())
+          if (material == null)
             throw new MappingError("The material \"" + materialString + "\" is not a valid XMaterial-constant");
 
-          return xMaterial.get().get();
+          return material;
         }
 
         if (type == int.class || type == Integer.class) {
-          var numberExpression = new ComponentExpression(String.valueOf(input), baseEnvironment, interpreterLogger);
+          var numberExpression = new ComponentExpression(parseCache.parseExpression(String.valueOf(input), interpreterLogger), baseEnvironment, interpreterLogger);
           return ComponentExpression.asInt(numberExpression, null);
         }
 
         if (type == double.class || type == Double.class) {
-          var numberExpression = new ComponentExpression(String.valueOf(input), baseEnvironment, interpreterLogger);
+          var numberExpression = new ComponentExpression(parseCache.parseExpression(String.valueOf(input), interpreterLogger), baseEnvironment, interpreterLogger);
           return ComponentExpression.asDouble(numberExpression, null);
         }
 
         if (type == boolean.class || type == Boolean.class) {
-          var numberExpression = new ComponentExpression(String.valueOf(input), baseEnvironment, interpreterLogger);
+          var numberExpression = new ComponentExpression(parseCache.parseExpression(String.valueOf(input), interpreterLogger), baseEnvironment, interpreterLogger);
           return ComponentExpression.asBoolean(numberExpression, null);
         }
 
         return input;
       });
+
+      return new LoadedConfig(mapper, fingerprint);
     }
   }
 
-  private Object parseLeafNodes(Object input, InterpreterLogger logger) {
+  private Object parseLeafNodes(Object input, ParseCache parseCache, InterpreterLogger logger) {
     if (input instanceof List<?> list) {
       for (var index = 0; index < list.size(); ++index) {
         //noinspection unchecked
-        ((List<Object>) list).set(index, parseLeafNodes(list.get(index), logger));
+        ((List<Object>) list).set(index, parseLeafNodes(list.get(index), parseCache, logger));
       }
       return input;
     }
@@ -222,19 +356,16 @@ public class ConfigHandler {
     if (input instanceof Map<?, ?> map) {
       //noinspection unchecked
       for (var entry : ((Map<?, Object>) map).entrySet())
-        entry.setValue(parseLeafNodes(entry.getValue(), logger));
+        entry.setValue(parseLeafNodes(entry.getValue(), parseCache, logger));
 
       return input;
     }
 
-    var view = InputView.of(String.valueOf(input));
-
     try {
-      return MarkupParser.parse(view, BuiltInTagRegistry.INSTANCE);
-    } catch (MarkupParseException e) {
-      logger.log(view, e.position, e.getErrorMessage(), null);
+      return parseCache.parseMarkup(String.valueOf(input), logger);
+    } catch (MappingError e) {
+      // The parse-error has already been logged
+      return input;
     }
-
-    return input;
   }
 }
@@ -1,20 +1,31 @@
 package at.blvckbytes.cm_mapper;
 
 import at.blvckbytes.cm_mapper.mapper.section.ConfigSection;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ConfigKeeper<T extends ConfigSection> {
 
+  private record LoadedRootSection<T>(T rootSection, FileFingerprint fingerprint) {}
+
   private final ConfigHandler configHandler;
   private final String fileName;
   private final Class<T> rootSectionType;
   private final Map<ReloadPriority, List<Runnable>> reloadListenersByPriority;
 
-  public T rootSection;
+  private final AtomicLong reloadSequence;
+  private volatile long appliedSequence;
+  private FileFingerprint loadedFingerprint;
+
+  public volatile T rootSection;
 
   public ConfigKeeper(
     ConfigHandler configHandler,
@@ -25,7 +36,13 @@ public class ConfigKeeper<T extends ConfigSection> {
     this.fileName = fileName;
     this.rootSectionType = rootSectionType;
     this.reloadListenersByPriority = new HashMap<>();
-    this.rootSection = loadRootSection();
+    this.reloadSequence = new AtomicLong();
+
+    var loadedRootSection = loadRootSection();
+    this.rootSection = loadedRootSection.rootSection();
+    this.loadedFingerprint = loadedRootSection.fingerprint();
+
+    configHandler.registerKeeper(fileName, this);
   }
 
   public void registerReloadListener(Runnable listener, ReloadPriority priority) {
@@ -36,9 +53,69 @@ public class ConfigKeeper<T extends ConfigSection> {
     registerReloadListener(listener, ReloadPriority.MEDIUM);
   }
 
+  /**
+   * @return Number which increases whenever a new root section has been swapped in, before reload listeners are called
+   */
+  public long getGeneration() {
+    return appliedSequence;
+  }
+
+  /**
+   * Reload the root section and call the reload listeners, if the file's contents have changed since the last load
+   */
   public void reload() throws Exception {
-    this.rootSection = loadRootSection();
+    long sequence = reloadSequence.incrementAndGet();
+    var loadedRootSection = loadRootSectionIfChanged();
+
+    if (loadedRootSection != null && swapRootSection(sequence, loadedRootSection))
+      callReloadListeners();
+  }
+
+  /**
+   * Reload the root section by parsing, extending and mapping the file on a worker, while the
+   * previous root section stays in use until the new one has been swapped in on the main thread,
+   * right before the reload listeners are called. If loading fails, nothing is swapped. Results
+   * of reloads which have been overtaken by a reload that was requested later on are discarded.
+   * If the file's contents have not changed since the last load, nothing is swapped either.
+   * @param workerExecutor Executor to load the file on
+   * @param mainThreadExecutor Executor to swap the root section and to call the reload listeners on
+   * @return Future of the root section which is in use after the reload
+   */
+  public CompletableFuture<T> reloadAsync(Executor workerExecutor, Executor mainThreadExecutor) {
+    long sequence = reloadSequence.incrementAndGet();
+
+    return CompletableFuture
+      .supplyAsync(() -> {
+        try {
+          return loadRootSectionIfChanged();
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+      }, workerExecutor)
+      .thenApplyAsync(loadedRootSection -> {
+        if (loadedRootSection != null && swapRootSection(sequence, loadedRootSection))
+          callReloadListeners();
+
+        return this.rootSection;
+      }, mainThreadExecutor);
+  }
+
+  /**
+   * @param sequence Sequence number of the reload which loaded the new root section
+   * @param loadedRootSection Newly loaded root section
+   * @return Whether the new root section has been swapped in, which is not the case if it's outdated
+   */
+  private synchronized boolean swapRootSection(long sequence, LoadedRootSection<T> loadedRootSection) {
+    if (sequence <= appliedSequence)
+      return false;
+
+    this.appliedSequence = sequence;
+    this.loadedFingerprint = loadedRootSection.fingerprint();
+    this.rootSection = loadedRootSection.rootSection();
+    return true;
+  }
 
+  private void callReloadListeners() {
     for (var priority : ReloadPriority.VALUES_IN_CALL_ORDER) {
       var listeners = reloadListenersByPriority.get(priority);
 
@@ -50,7 +127,27 @@ public class ConfigKeeper<T extends ConfigSection> {
     }
   }
 
-  private T loadRootSection() throws Exception {
-    return this.configHandler.loadConfig(fileName).mapSection(null, rootSectionType);
+  /**
+   * @return Newly loaded root section, null if the file's contents are still the same as those of the current one
+   */
+  private @Nullable LoadedRootSection<T> loadRootSectionIfChanged() throws Exception {
+    FileFingerprint currentFingerprint;
+
+    synchronized (this) {
+      currentFingerprint = this.loadedFingerprint;
+    }
+
+    if (!this.configHandler.hasChangedSince(fileName, currentFingerprint))
+      return null;
+
+    return loadRootSection();
+  }
+
+  private LoadedRootSection<T> loadRootSection() throws Exception {
+    // Also held while mapping, as sections parse their markup through the file's shared parse-cache
+    synchronized (configHandler.getLoadLock(fileName)) {
+      var loadedConfig = this.configHandler.loadConfigWithFingerprint(fileName);
+      return new LoadedRootSection<>(loadedConfig.mapper().mapSection(null, rootSectionType), loadedConfig.fingerprint());
+    }
   }
 }
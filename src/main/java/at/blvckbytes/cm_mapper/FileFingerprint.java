@@ -0,0 +1,66 @@
+package at.blvckbytes.cm_mapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fingerprint of a file's contents at the time it has been read, which allows to tell whether it has been
+ * changed since without parsing it again. Size and modification-time are compared first, and the file is
+ * only ever read and digested if they differ, as touching a file does not necessarily change its contents.
+ */
+final class FileFingerprint {
+
+  private final long size;
+  private final byte[] digest;
+
+  private volatile long lastModified;
+
+  private FileFingerprint(long size, long lastModified, byte[] digest) {
+    this.size = size;
+    this.lastModified = lastModified;
+    this.digest = digest;
+  }
+
+  /**
+   * @param contents Contents of the file, as read or written
+   * @param lastModified Modification-time of the file, as taken before reading or after writing
+   * @return Fingerprint of the file
+   */
+  static FileFingerprint of(byte[] contents, long lastModified) {
+    return new FileFingerprint(contents.length, lastModified, digest(contents));
+  }
+
+  /**
+   * @param file File to check
+   * @return Whether the file's contents are still the same as when taking this fingerprint
+   */
+  boolean matches(File file) throws IOException {
+    long currentLastModified = file.lastModified();
+
+    if (file.length() == size && currentLastModified == lastModified)
+      return true;
+
+    if (!file.isFile())
+      return false;
+
+    byte[] contents = Files.readAllBytes(file.toPath());
+
+    if (contents.length != size || !MessageDigest.isEqual(digest, digest(contents)))
+      return false;
+
+    // Only touched, such that the next check can take the fast path again
+    this.lastModified = currentLastModified;
+    return true;
+  }
+
+  private static byte[] digest(byte[] contents) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(contents);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported by this runtime", e);
+    }
+  }
+}
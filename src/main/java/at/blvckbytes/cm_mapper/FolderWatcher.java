@@ -0,0 +1,124 @@
+package at.blvckbytes.cm_mapper;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the files which reside directly within a folder, and hands each changed file of interest to the
+ * reload-callback once it hasn't been written to for the debounce-duration, as editors tend to write a file
+ * multiple times when saving. Failures of the callback are logged and never stop watching, as the watcher
+ * would otherwise silently cease to work for the rest of the session.
+ */
+final class FolderWatcher {
+
+  private final Path folderPath;
+  private final long debounceMillis;
+  private final Predicate<Path> isWatched;
+  private final Consumer<Path> reloadCallback;
+  private final Logger logger;
+
+  private final WatchService watchService;
+  private final Thread watchThread;
+
+  /**
+   * @param folderPath Folder to watch
+   * @param threadName Name of the watching thread
+   * @param debounceMillis Duration in milliseconds a file has to remain untouched before reloading
+   * @param isWatched Predicate deciding whether an absolute, normalized file-path is of interest
+   * @param reloadCallback Callback to hand the absolute, normalized path of each file to reload to
+   * @param logger Logger to log failures of the callback to
+   */
+  FolderWatcher(
+    Path folderPath,
+    String threadName,
+    long debounceMillis,
+    Predicate<Path> isWatched,
+    Consumer<Path> reloadCallback,
+    Logger logger
+  ) throws IOException {
+    this.folderPath = folderPath.toAbsolutePath().normalize();
+    this.debounceMillis = debounceMillis;
+    this.isWatched = isWatched;
+    this.reloadCallback = reloadCallback;
+    this.logger = logger;
+
+    this.watchService = FileSystems.getDefault().newWatchService();
+    this.folderPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+    this.watchThread = new Thread(this::watchFolder, threadName);
+    this.watchThread.setDaemon(true);
+  }
+
+  void start() {
+    watchThread.start();
+  }
+
+  void close() {
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Could not close the watch-service of " + folderPath, e);
+    }
+
+    watchThread.interrupt();
+  }
+
+  private void watchFolder() {
+    Map<Path, Long> reloadDeadlineByFile = new HashMap<>();
+
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key;
+
+        if (reloadDeadlineByFile.isEmpty())
+          key = watchService.take();
+        else {
+          long remainingMillis = Collections.min(reloadDeadlineByFile.values()) - System.currentTimeMillis();
+          key = watchService.poll(Math.max(0, remainingMillis), TimeUnit.MILLISECONDS);
+        }
+
+        if (key != null) {
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (!(event.context() instanceof Path changedPath))
+              continue;
+
+            Path filePath = folderPath.resolve(changedPath).toAbsolutePath().normalize();
+
+            // Every further write pushes the reload back
+            if (isWatched.test(filePath))
+              reloadDeadlineByFile.put(filePath, System.currentTimeMillis() + debounceMillis);
+          }
+
+          key.reset();
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (var deadlineIterator = reloadDeadlineByFile.entrySet().iterator(); deadlineIterator.hasNext();) {
+          var deadlineEntry = deadlineIterator.next();
+
+          if (deadlineEntry.getValue() > now)
+            continue;
+
+          deadlineIterator.remove();
+
+          try {
+            reloadCallback.accept(deadlineEntry.getKey());
+          } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Could not hot-reload the configuration " + folderPath.relativize(deadlineEntry.getKey()), e);
+          }
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ignored) {
+      // Watching has been stopped
+    }
+  }
+}
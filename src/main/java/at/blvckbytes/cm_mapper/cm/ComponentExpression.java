@@ -22,22 +22,44 @@ public class ComponentExpression {
   private final InterpreterLogger logger;
 
   public ComponentExpression(String expression, InterpretationEnvironment baseEnvironment, InterpreterLogger logger) {
+    this(parse(expression, logger), baseEnvironment, logger);
+  }
+
+  /**
+   * @param expressionNode Already parsed expression, which may be shared, as it's never modified
+   * @param baseEnvironment Environment to inherit from when interpreting
+   * @param logger Logger to log interpretation-errors to
+   */
+  public ComponentExpression(ExpressionNode expressionNode, InterpretationEnvironment baseEnvironment, InterpreterLogger logger) {
+    this.expressionNode = expressionNode;
+    this.baseEnvironment = baseEnvironment;
+    this.logger = logger;
+  }
+
+  /**
+   * Parse an expression, while logging parse-errors
+   * @param expression Expression to parse
+   * @param logger Logger to log parse-errors to
+   * @return Parsed AST of the expression
+   * @throws MappingError If the expression could not be parsed
+   */
+  public static ExpressionNode parse(String expression, InterpreterLogger logger) {
     var view = InputView.of(expression);
 
     try {
-      this.expressionNode = ExpressionParser.parse(view, null);
+      return ExpressionParser.parse(view, null);
     } catch (ExpressionParseException e) {
       logger.log(view, e.position, e.getErrorMessage(), null);
 
       throw new MappingError("The above error occurred while trying to parse an expression");
     }
-
-    this.baseEnvironment = baseEnvironment;
-    this.logger = logger;
   }
 
   public @Nullable Object interpret(@Nullable InterpretationEnvironment environment) {
-    var finalEnvironment = environment == null ? baseEnvironment : environment.copy().inheritFrom(baseEnvironment, false);
+    return interpretIn(Environments.resolve(environment, baseEnvironment));
+  }
+
+  private @Nullable Object interpretIn(InterpretationEnvironment finalEnvironment) {
     return ExpressionInterpreter.interpret(expressionNode, finalEnvironment, logger);
   }
 
@@ -45,38 +67,66 @@ public class ComponentExpression {
     if (value == null)
       return false;
 
-    var finalEnvironment = environment == null ? value.baseEnvironment : environment.copy().inheritFrom(value.baseEnvironment, false);
+    var finalEnvironment = Environments.resolve(environment, value.baseEnvironment);
 
-    return finalEnvironment.getValueInterpreter().asBoolean(value.interpret(finalEnvironment));
+    return finalEnvironment.getValueInterpreter().asBoolean(value.interpretIn(finalEnvironment));
   }
 
   public static double asDouble(@Nullable ComponentExpression value, @Nullable InterpretationEnvironment environment) {
     if (value == null)
       return 0;
 
-    var finalEnvironment = environment == null ? value.baseEnvironment : environment.copy().inheritFrom(value.baseEnvironment, false);
+    var finalEnvironment = Environments.resolve(environment, value.baseEnvironment);
 
-    return finalEnvironment.getValueInterpreter().asDouble(value.interpret(finalEnvironment));
+    return finalEnvironment.getValueInterpreter().asDouble(value.interpretIn(finalEnvironment));
   }
 
   public static int asInt(@Nullable ComponentExpression value, @Nullable InterpretationEnvironment environment) {
     if (value == null)
       return 0;
 
-    var finalEnvironment = environment == null ? value.baseEnvironment : environment.copy().inheritFrom(value.baseEnvironment, false);
+    var finalEnvironment = Environments.resolve(environment, value.baseEnvironment);
+
+    return (int) finalEnvironment.getValueInterpreter().asLong(value.interpretIn(finalEnvironment));
+  }
+
+  /**
+   * Interpret an expression as a list of slots
+   * @param value Expression to interpret
+   * @param environment Environment to interpret in
+   * @return Set of slots, empty if the expression was absent
+   * @throws MappingError If a slot is out of the range a {@link SlotSet} can represent
+   */
+  public static SlotSet asSlotSet(@Nullable ComponentExpression value, @Nullable InterpretationEnvironment environment) {
+    if (value == null)
+      return SlotSet.EMPTY;
+
+    var finalEnvironment = Environments.resolve(environment, value.baseEnvironment);
+    var valueInterpreter = finalEnvironment.getValueInterpreter();
+
+    long slotBits = 0;
+
+    for (var slotEntry : valueInterpreter.asList(value.interpretIn(finalEnvironment))) {
+      var slot = valueInterpreter.asLong(slotEntry);
+
+      if (slot < 0 || slot > SlotSet.MAX_SLOT)
+        throw new MappingError("Slot " + slot + " out of range [0;" + SlotSet.MAX_SLOT + "]");
+
+      slotBits |= 1L << slot;
+    }
 
-    return (int) finalEnvironment.getValueInterpreter().asLong(value.interpret(finalEnvironment));
+    return SlotSet.ofBits(slotBits);
   }
 
   public static Set<Integer> asIntSet(@Nullable ComponentExpression value, @Nullable InterpretationEnvironment environment) {
     if (value == null)
       return Collections.emptySet();
 
-    var finalEnvironment = environment == null ? value.baseEnvironment : environment.copy().inheritFrom(value.baseEnvironment, false);
+    var finalEnvironment = Environments.resolve(environment, value.baseEnvironment);
 
     var result = new HashSet<Integer>();
 
-    for (var slotEntry : finalEnvironment.getValueInterpreter().asList(value.interpret(finalEnvironment)))
+    for (var slotEntry : finalEnvironment.getValueInterpreter().asList(value.interpretIn(finalEnvironment)))
       result.add((int) finalEnvironment.getValueInterpreter().asLong(slotEntry));
 
     return result;
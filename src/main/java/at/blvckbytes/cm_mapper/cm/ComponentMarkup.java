@@ -15,7 +15,9 @@ import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class ComponentMarkup {
 
@@ -24,19 +26,79 @@ public class ComponentMarkup {
   private final InterpretationEnvironment baseEnvironment;
   private final InterpreterLogger logger;
 
+  // Results of markup which does not depend on the environment, computed on first use
+  private final boolean environmentIndependent;
+  private final @Nullable Map<SlotType, List<Component>> componentsBySlotType;
+  private volatile @Nullable String plainString;
+
   public ComponentMarkup(String markup, InterpretationEnvironment baseEnvironment, InterpreterLogger logger) {
+    this(markup, parse(markup, logger), baseEnvironment, logger);
+  }
+
+  /**
+   * @param markupNode Already parsed markup, which may be shared, as it's never modified
+   * @param baseEnvironment Environment to inherit from when interpreting
+   * @param logger Logger to log interpretation-errors to
+   */
+  public ComponentMarkup(MarkupNode markupNode, InterpretationEnvironment baseEnvironment, InterpreterLogger logger) {
+    this(null, markupNode, baseEnvironment, logger);
+  }
+
+  /**
+   * @param markup Markup the node has been parsed from, null if unknown, which disables caching results
+   * @param markupNode Already parsed markup, which may be shared, as it's never modified
+   * @param baseEnvironment Environment to inherit from when interpreting
+   * @param logger Logger to log interpretation-errors to
+   */
+  public ComponentMarkup(@Nullable String markup, MarkupNode markupNode, InterpretationEnvironment baseEnvironment, InterpreterLogger logger) {
+    this.markupNode = markupNode;
+    this.baseEnvironment = baseEnvironment;
+    this.logger = logger;
+    this.environmentIndependent = markup != null && isEnvironmentIndependent(markup);
+    this.componentsBySlotType = environmentIndependent ? new ConcurrentHashMap<>() : null;
+  }
+
+  /**
+   * Markup can only ever access the environment through interpolations, bindings, directives or
+   * expression-attributes, all of which require one of these characters; markup without any of
+   * them renders the very same result no matter the environment, and is thus only interpreted once
+   */
+  private static boolean isEnvironmentIndependent(String markup) {
+    for (int index = 0; index < markup.length(); ++index) {
+      switch (markup.charAt(index)) {
+        case '{', '[', '*', '@' -> {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return Whether this markup renders the same result for every environment, which is then only computed once
+   */
+  public boolean isEnvironmentIndependent() {
+    return environmentIndependent;
+  }
+
+  /**
+   * Parse markup, while logging parse-errors
+   * @param markup Markup to parse
+   * @param logger Logger to log parse-errors to
+   * @return Parsed AST of the markup
+   * @throws MappingError If the markup could not be parsed
+   */
+  public static MarkupNode parse(String markup, InterpreterLogger logger) {
     var view = InputView.of(markup);
 
     try {
-      this.markupNode = MarkupParser.parse(view, BuiltInTagRegistry.INSTANCE);
+      return MarkupParser.parse(view, BuiltInTagRegistry.INSTANCE);
     } catch (MarkupParseException e) {
       logger.log(view, e.position, e.getErrorMessage(), null);
 
       throw new MappingError("The above error occurred while trying to parse component-markup");
     }
-
-    this.baseEnvironment = baseEnvironment;
-    this.logger = logger;
   }
 
   public void sendMessage(Audience player) {
@@ -49,6 +111,53 @@ public class ComponentMarkup {
       player.sendMessage(component);
   }
 
+  /**
+   * Send this message to many recipients at once, while interpreting it only a single time
+   * @param audiences Recipients of the message
+   * @param environment Environment shared by all recipients
+   */
+  public void broadcastMessage(Collection<? extends Audience> audiences, @Nullable InterpretationEnvironment environment) {
+    if (audiences.isEmpty())
+      return;
+
+    var components = interpret(SlotType.CHAT, environment);
+
+    for (var audience : audiences) {
+      for (var component : components)
+        audience.sendMessage(component);
+    }
+  }
+
+  /**
+   * Send this message to many recipients at once, while interpreting it only once per group of recipients
+   * which share an equal key, as recipients with equal keys are expected to render the same message
+   * @param audiences Recipients of the message
+   * @param keyFunction Function deciding upon the key of a recipient, by which recipients are grouped
+   * @param environmentFunction Function creating the environment of a group by its key, which may yield null
+   */
+  public <A extends Audience, K> void broadcastMessage(
+    Collection<? extends A> audiences,
+    Function<? super A, ? extends K> keyFunction,
+    Function<? super K, ? extends InterpretationEnvironment> environmentFunction
+  ) {
+    if (audiences.isEmpty())
+      return;
+
+    if (environmentIndependent) {
+      broadcastMessage(audiences, null);
+      return;
+    }
+
+    // Keeps the order of recipients within their group
+    var audiencesByKey = new LinkedHashMap<K, List<A>>();
+
+    for (var audience : audiences)
+      audiencesByKey.computeIfAbsent(keyFunction.apply(audience), key -> new ArrayList<>()).add(audience);
+
+    for (var groupEntry : audiencesByKey.entrySet())
+      broadcastMessage(groupEntry.getValue(), environmentFunction.apply(groupEntry.getKey()));
+  }
+
   public void sendActionBar(Player player, @Nullable InterpretationEnvironment environment) {
     var components = interpret(SlotType.CHAT, environment);
 
@@ -64,13 +173,31 @@ public class ComponentMarkup {
   }
 
   public String asPlainString(@Nullable InterpretationEnvironment environment) {
-    var finalEnvironment = environment == null ? baseEnvironment : environment.copy().inheritFrom(baseEnvironment, false);
-    return MarkupInterpreter.interpret(markupNode, SlotType.SINGLE_LINE_CHAT, finalEnvironment, PlainStringComponentConstructor.INSTANCE, logger).get(0);
+    if (environmentIndependent) {
+      var result = plainString;
+
+      if (result == null) {
+        result = MarkupInterpreter.interpret(markupNode, SlotType.SINGLE_LINE_CHAT, baseEnvironment, PlainStringComponentConstructor.INSTANCE, logger).get(0);
+        plainString = result;
+      }
+
+      return result;
+    }
+
+    return MarkupInterpreter.interpret(markupNode, SlotType.SINGLE_LINE_CHAT, Environments.resolve(environment, baseEnvironment), PlainStringComponentConstructor.INSTANCE, logger).get(0);
   }
 
   public List<Component> interpret(SlotType slotType, @Nullable InterpretationEnvironment environment) {
-    var finalEnvironment = environment == null ? baseEnvironment : environment.copy().inheritFrom(baseEnvironment, false);
-    return MarkupInterpreter.interpret(markupNode, slotType, finalEnvironment, AdventureComponentConstructor.INSTANCE, logger);
+    if (componentsBySlotType != null) {
+      var components = componentsBySlotType.computeIfAbsent(slotType, key -> (
+        List.copyOf(MarkupInterpreter.interpret(markupNode, key, baseEnvironment, AdventureComponentConstructor.INSTANCE, logger))
+      ));
+
+      // Callers are free to modify the result, while components themselves are immutable
+      return new ArrayList<>(components);
+    }
+
+    return MarkupInterpreter.interpret(markupNode, slotType, Environments.resolve(environment, baseEnvironment), AdventureComponentConstructor.INSTANCE, logger);
   }
 
   public void log(String message, @Nullable Throwable e) {
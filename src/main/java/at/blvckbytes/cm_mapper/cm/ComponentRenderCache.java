@@ -0,0 +1,140 @@
+package at.blvckbytes.cm_mapper.cm;
+
+import at.blvckbytes.cm_mapper.ConfigKeeper;
+import at.blvckbytes.component_markup.constructor.SlotType;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of interpreted markup, for markup which is rendered with the same values over and over
+ * again. Entries are keyed by the markup instance, the slot-type and a list of values which the caller
+ * declares to fully determine the result, usually the values of all variables the markup makes use of.
+ * The least recently used entries are evicted once the cache is full, and entries expire after a fixed
+ * duration, such that values which are not part of the key may at most be outdated by that duration.
+ * Each cache belongs to the keeper of the config its markup stems from, and drops all of its entries
+ * as soon as that keeper has swapped in a new root section.
+ */
+public class ComponentRenderCache {
+
+  private record Key(ComponentMarkup markup, SlotType slotType, List<?> keyValues) {}
+
+  private record Entry(List<Component> components, long expiresAtNanos) {}
+
+  private final LongSupplier generationSupplier;
+  private final LongSupplier nanoClock;
+  private final long ttlNanos;
+  private final Map<Key, Entry> entries;
+
+  // Generation of the keeper which all current entries have been rendered within
+  private long entriesGeneration;
+
+  /**
+   * @param keeper Keeper of the config which the markup to interpret stems from
+   * @param maxSize Maximum number of entries
+   * @param ttlMillis Duration in milliseconds after which an entry expires
+   */
+  public ComponentRenderCache(ConfigKeeper<?> keeper, int maxSize, long ttlMillis) {
+    this(keeper::getGeneration, maxSize, ttlMillis, System::nanoTime);
+  }
+
+  ComponentRenderCache(LongSupplier generationSupplier, int maxSize, long ttlMillis, LongSupplier nanoClock) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("The maximum size has to be positive");
+
+    this.generationSupplier = generationSupplier;
+    this.nanoClock = nanoClock;
+    this.entriesGeneration = generationSupplier.getAsLong();
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    this.entries = new LinkedHashMap<>(16, .75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Interpret markup or get its cached result, see {@link ComponentMarkup#interpret}
+   * @param markup Markup to interpret
+   * @param slotType Slot-type to interpret for
+   * @param environment Environment to interpret in, which has to be fully determined by the key-values
+   * @param keyValues Values which fully determine the result, compared by equality
+   * @return Interpreted components, which may be modified
+   */
+  public List<Component> interpret(ComponentMarkup markup, SlotType slotType, @Nullable InterpretationEnvironment environment, List<?> keyValues) {
+    // Already only ever interpreted once
+    if (markup.isEnvironmentIndependent())
+      return markup.interpret(slotType, environment);
+
+    // Values may be null, which List.copyOf does not allow for
+    var key = new Key(markup, slotType, new ArrayList<>(keyValues));
+    var now = nanoClock.getAsLong();
+    var generation = generationSupplier.getAsLong();
+
+    synchronized (entries) {
+      invalidateIfOutdated(generation);
+
+      var entry = entries.get(key);
+
+      if (entry != null) {
+        if (entry.expiresAtNanos() - now > 0)
+          return new ArrayList<>(entry.components());
+
+        entries.remove(key);
+      }
+    }
+
+    // Interpreting may take a while, and thus does not block other callers
+    var components = List.copyOf(markup.interpret(slotType, environment));
+
+    synchronized (entries) {
+      // Not cached if a new root section has been swapped in while interpreting
+      if (generation == entriesGeneration)
+        entries.put(key, new Entry(components, now + ttlNanos));
+    }
+
+    return new ArrayList<>(components);
+  }
+
+  /**
+   * Interpret markup or get its cached result, see {@link #interpret(ComponentMarkup, SlotType, InterpretationEnvironment, List)}
+   */
+  public List<Component> interpret(ComponentMarkup markup, SlotType slotType, @Nullable InterpretationEnvironment environment, Object... keyValues) {
+    return interpret(markup, slotType, environment, Arrays.asList(keyValues));
+  }
+
+  /**
+   * Remove all entries, which has to be done whenever values the keys do not account for have changed
+   */
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * @return Number of entries, including those which expired but have not yet been removed
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private void invalidateIfOutdated(long generation) {
+    if (generation <= entriesGeneration)
+      return;
+
+    entries.clear();
+    entriesGeneration = generation;
+  }
+}
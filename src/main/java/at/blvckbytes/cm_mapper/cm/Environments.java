@@ -0,0 +1,23 @@
+package at.blvckbytes.cm_mapper.cm;
+
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+final class Environments {
+
+  private Environments() {}
+
+  /**
+   * Get the environment to interpret in, which inherits from the base environment; inheriting requires a copy,
+   * as the caller's environment may not be modified, which is thus avoided whenever there's nothing to inherit
+   * @param environment Environment provided by the caller
+   * @param baseEnvironment Environment to inherit from
+   * @return Environment to interpret in
+   */
+  static InterpretationEnvironment resolve(@Nullable InterpretationEnvironment environment, InterpretationEnvironment baseEnvironment) {
+    if (environment == null || environment == baseEnvironment)
+      return baseEnvironment;
+
+    return environment.copy().inheritFrom(baseEnvironment, false);
+  }
+}
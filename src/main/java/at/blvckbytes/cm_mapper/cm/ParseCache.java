@@ -0,0 +1,92 @@
+package at.blvckbytes.cm_mapper.cm;
+
+import at.blvckbytes.component_markup.expression.ast.ExpressionNode;
+import at.blvckbytes.component_markup.markup.ast.node.MarkupNode;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of parsed markup- and expression-ASTs by their source text, such that identical text, which
+ * is quite common in repetitive configs, is only ever parsed once and all of its occurrences share
+ * a single AST. Parsing does not depend on the environment, and ASTs are never modified after parsing.
+ * Entries survive across loads, but every entry which has not been used during the previous
+ * generation is evicted when starting a new one, such that text which has been removed is let go of.
+ */
+public class ParseCache {
+
+  private static final class Entry<T> {
+    final T node;
+    volatile int lastUsedGeneration;
+
+    Entry(T node, int generation) {
+      this.node = node;
+      this.lastUsedGeneration = generation;
+    }
+  }
+
+  private final Map<String, Entry<MarkupNode>> markupEntries;
+  private final Map<String, Entry<ExpressionNode>> expressionEntries;
+
+  private volatile int generation;
+
+  public ParseCache() {
+    this.markupEntries = new ConcurrentHashMap<>();
+    this.expressionEntries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Start a new generation, which should be done before each load, while evicting all
+   * entries which have not been used throughout the previous generation
+   */
+  public synchronized void nextGeneration() {
+    int previousGeneration = this.generation;
+
+    markupEntries.values().removeIf(entry -> entry.lastUsedGeneration < previousGeneration);
+    expressionEntries.values().removeIf(entry -> entry.lastUsedGeneration < previousGeneration);
+
+    this.generation = previousGeneration + 1;
+  }
+
+  /**
+   * Parse markup or get its cached AST, see {@link ComponentMarkup#parse}
+   * @param markup Markup to parse
+   * @param logger Logger to log parse-errors to
+   * @return Parsed AST of the markup
+   */
+  public MarkupNode parseMarkup(String markup, InterpreterLogger logger) {
+    return lookup(markupEntries, markup, logger, ComponentMarkup::parse);
+  }
+
+  /**
+   * Parse an expression or get its cached AST, see {@link ComponentExpression#parse}
+   * @param expression Expression to parse
+   * @param logger Logger to log parse-errors to
+   * @return Parsed AST of the expression
+   */
+  public ExpressionNode parseExpression(String expression, InterpreterLogger logger) {
+    return lookup(expressionEntries, expression, logger, ComponentExpression::parse);
+  }
+
+  private <T> T lookup(Map<String, Entry<T>> entries, String text, InterpreterLogger logger, BiFunction<String, InterpreterLogger, T> parser) {
+    int currentGeneration = this.generation;
+    Entry<T> entry = entries.get(text);
+
+    if (entry == null) {
+      // Parse-errors are not cached, as they're to be logged on each occurrence
+      entry = new Entry<>(parser.apply(text, logger), currentGeneration);
+
+      Entry<T> existingEntry = entries.putIfAbsent(text, entry);
+
+      if (existingEntry != null)
+        entry = existingEntry;
+    }
+
+    if (entry.lastUsedGeneration < currentGeneration)
+      entry.lastUsedGeneration = currentGeneration;
+
+    return entry.node;
+  }
+}
@@ -0,0 +1,150 @@
+package at.blvckbytes.cm_mapper.cm;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of inventory-slots, stored as the bits of a single long, which suffices for
+ * all inventories, as they have at most 54 slots. Membership-checks, intersections and
+ * iterations in ascending order never box slots nor allocate anything.
+ */
+public final class SlotSet {
+
+  public static final int MAX_SLOT = 63;
+
+  public static final SlotSet EMPTY = new SlotSet(0);
+
+  private final long bits;
+
+  private volatile @Nullable Set<Integer> boxedView;
+
+  private SlotSet(long bits) {
+    this.bits = bits;
+  }
+
+  /**
+   * @param bits Bits of the set, where bit n represents slot n
+   * @return Set of the given bits
+   */
+  public static SlotSet ofBits(long bits) {
+    return bits == 0 ? EMPTY : new SlotSet(bits);
+  }
+
+  /**
+   * @param slots Slots to contain, each within [0;{@link #MAX_SLOT}]
+   * @return Set of the given slots
+   */
+  public static SlotSet of(int... slots) {
+    long bits = 0;
+
+    for (int slot : slots) {
+      if (slot < 0 || slot > MAX_SLOT)
+        throw new IllegalArgumentException("Slot " + slot + " out of range [0;" + MAX_SLOT + "]");
+
+      bits |= 1L << slot;
+    }
+
+    return ofBits(bits);
+  }
+
+  public boolean contains(int slot) {
+    return slot >= 0 && slot <= MAX_SLOT && (bits & (1L << slot)) != 0;
+  }
+
+  public int size() {
+    return Long.bitCount(bits);
+  }
+
+  public boolean isEmpty() {
+    return bits == 0;
+  }
+
+  /**
+   * @return Lowest slot, -1 if the set is empty
+   */
+  public int first() {
+    return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * @return Highest slot, -1 if the set is empty
+   */
+  public int last() {
+    return bits == 0 ? -1 : MAX_SLOT - Long.numberOfLeadingZeros(bits);
+  }
+
+  /**
+   * @param fromSlot Slot to start searching at, inclusive
+   * @return Lowest slot which is greater than or equal to the given slot, -1 if there is none
+   */
+  public int next(int fromSlot) {
+    if (fromSlot > MAX_SLOT)
+      return -1;
+
+    long remainingBits = fromSlot <= 0 ? bits : bits & (-1L << fromSlot);
+    return remainingBits == 0 ? -1 : Long.numberOfTrailingZeros(remainingBits);
+  }
+
+  public boolean intersects(SlotSet other) {
+    return (bits & other.bits) != 0;
+  }
+
+  public SlotSet intersection(SlotSet other) {
+    return ofBits(bits & other.bits);
+  }
+
+  public SlotSet union(SlotSet other) {
+    return ofBits(bits | other.bits);
+  }
+
+  /**
+   * @param consumer Consumer to call with each slot, in ascending order
+   */
+  public void forEachSlot(IntConsumer consumer) {
+    for (long remainingBits = bits; remainingBits != 0; remainingBits &= remainingBits - 1)
+      consumer.accept(Long.numberOfTrailingZeros(remainingBits));
+  }
+
+  /**
+   * @return Bits of the set, where bit n represents slot n
+   */
+  public long toBits() {
+    return bits;
+  }
+
+  /**
+   * @return Unmodifiable view of all slots as boxed integers, in ascending order
+   */
+  public Set<Integer> toSet() {
+    var result = boxedView;
+
+    if (result == null) {
+      var slots = new LinkedHashSet<Integer>();
+      forEachSlot(slots::add);
+
+      result = Collections.unmodifiableSet(slots);
+      boxedView = result;
+    }
+
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || (other instanceof SlotSet otherSet && bits == otherSet.bits);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(bits);
+  }
+
+  @Override
+  public String toString() {
+    return toSet().toString();
+  }
+}
@@ -35,8 +35,6 @@ import java.util.stream.Collectors;
 
 public class ConfigMapper implements IConfigMapper {
 
-  private record Tuple<A, B>(A a, B b) {}
-
   private final IConfig config;
   private final InterpretationEnvironment baseEnvironment;
   private final InterpreterLogger interpreterLogger;
@@ -61,7 +59,7 @@ public class ConfigMapper implements IConfigMapper {
 
   @Override
   public <T extends ConfigSection> T mapSection(@Nullable String root, Class<T> type) throws Exception {
-    return mapSectionSub(root, null, type);
+    return mapSectionSub(root == null ? null : ConfigPath.of(root), null, type);
   }
 
   /**
@@ -76,21 +74,19 @@ public class ConfigMapper implements IConfigMapper {
    * @param type Class of the config section to instantiate
    * @return Instantiated class with mapped fields
    */
-  private <T extends ConfigSection> T mapSectionSub(@Nullable String root, @Nullable Map<?, ?> source, Class<T> type) throws Exception {
-      T instance = findStandardConstructor(type).newInstance(baseEnvironment, interpreterLogger);
-
-      Tuple<List<Field>, Iterator<Field>> fields = findApplicableFields(type);
+  private <T extends ConfigSection> T mapSectionSub(@Nullable ConfigPath root, @Nullable Map<?, ?> source, Class<T> type) throws Exception {
+      SectionMappingPlan plan = SectionMappingPlan.of(type);
+      T instance = type.cast(plan.instantiate(baseEnvironment, interpreterLogger));
 
-      while (fields.b().hasNext()) {
-        Field f = fields.b().next();
-        CSNamed nameAnnotation = f.getAnnotation(CSNamed.class);
-        String fName = nameAnnotation == null ? f.getName() : nameAnnotation.name();
+      for (SectionMappingPlan.FieldPlan fieldPlan : plan.mappingOrder) {
+        Field f = fieldPlan.field();
+        String fName = fieldPlan.name();
 
         try {
           Class<?> fieldType = f.getType();
 
           // Object fields trigger a call to runtime decide their type based on previous fields
-          if (fieldType == Object.class || f.isAnnotationPresent(CSDecide.class)) {
+          if (fieldPlan.decidable()) {
             Class<?> decidedType = instance.runtimeDecide(fName);
 
             if (decidedType == null)
@@ -98,7 +94,7 @@ public class ConfigMapper implements IConfigMapper {
 
             fieldType = decidedType;
           }
-          Object value = resolveFieldValue(root, source, f, fieldType);
+          Object value = resolveFieldValue(root, source, fieldPlan, fieldType);
 
           // Couldn't resolve a non-null value, try to ask for a default value
           if (value == null)
@@ -112,60 +108,20 @@ public class ConfigMapper implements IConfigMapper {
           if (value == null)
             continue;
 
-          f.set(instance, value);
+          fieldPlan.assign(instance, value);
         } catch (MappingError error) {
-          IllegalStateException exception = new IllegalStateException(error.getMessage() + " (at path '" + joinPaths(root, fName) + "')");
+          IllegalStateException exception = new IllegalStateException(error.getMessage() + " (at path '" + ConfigPath.resolve(root, fName) + "')");
           exception.addSuppressed(error);
           throw exception;
         }
       }
 
       // This instance won't have any more changes applied to it, call with the list of affected fields
-      instance.afterParsing(fields.a());
+      instance.afterParsing(plan.fields);
 
       return instance;
   }
 
-  /**
-   * Find all fields of a class which automated mapping applies to, including inherited fields
-   * @param type Class to look through
-   * @return A tuple containing the unsorted list as well as an iterator of fields in
-   *         the order that fields of type Object come after known types
-   */
-  private Tuple<List<Field>, Iterator<Field>> findApplicableFields(Class<?> type) {
-    List<Field> affectedFields = new ArrayList<>();
-
-    // Walk the class' hierarchy
-    Class<?> c = type;
-    while (c != Object.class) {
-      for (Field f : c.getDeclaredFields()) {
-        if (Modifier.isStatic(f.getModifiers()))
-          continue;
-
-        if (f.isAnnotationPresent(CSIgnore.class))
-          continue;
-
-        if (f.getType() == type)
-          throw new IllegalStateException("Sections cannot use self-referencing fields (" + type + ", " + f.getName() + ")");
-
-        f.setAccessible(true);
-        affectedFields.add(f);
-      }
-      c = c.getSuperclass();
-    }
-
-    Iterator<Field> fieldI = affectedFields.stream()
-      .sorted((a, b) -> {
-        if (a.getType() == Object.class && b.getType() == Object.class)
-          return 0;
-
-        // Objects are "greater", so they'll be last when sorting ASC
-        return a.getType() == Object.class ? 1 : -1;
-      }).iterator();
-
-    return new Tuple<>(affectedFields, fieldI);
-  }
-
   /**
    * Resolve a path by either looking it up in the config itself or by resolving it
    * from a previous config response which occurred in the form of a map
@@ -173,26 +129,27 @@ public class ConfigMapper implements IConfigMapper {
    * @param source Map to resolve from instead of querying the config, optional
    * @return Resolved value, null if either the value was null or if it wasn't available
    */
-  private @Nullable Object resolvePath(String path, @Nullable Map<?, ?> source) {
+  private @Nullable Object resolvePath(@Nullable ConfigPath path, @Nullable Map<?, ?> source) {
     // No object to look in specified, retrieve this path from the config
     if (source == null)
-      return config.get(path);
+      return config.getAt(path);
+
+    // Path was absent, which means root
+    if (path == null)
+      return source;
 
-    int dotIndex = path.indexOf('.');
+    int lastSegmentIndex = path.length() - 1;
 
-    while (!path.isEmpty()) {
-      String key = dotIndex < 0 ? path : path.substring(0, dotIndex);
+    for (int segmentIndex = 0; segmentIndex <= lastSegmentIndex; ++segmentIndex) {
+      String key = path.segment(segmentIndex);
 
       if (key.isBlank())
         throw new MappingError("Cannot resolve a blank key");
 
-      path = dotIndex < 0 ? "" : path.substring(dotIndex + 1);
-      dotIndex = path.indexOf('.');
-
       Object value = source.get(key);
 
       // Last iteration, respond with the current value
-      if (path.isEmpty())
+      if (segmentIndex == lastSegmentIndex)
         return value;
 
       // Reached a dead end and not yet at the last iteration
@@ -203,7 +160,6 @@ public class ConfigMapper implements IConfigMapper {
       source = (Map<?, ?>) value;
     }
 
-    // Path was blank, which means root
     return source;
   }
 
@@ -285,13 +241,12 @@ public class ConfigMapper implements IConfigMapper {
 
   /**
    * Handles resolving a field of type map based on a previously looked up value
-   * @param f Map field which has to be assigned to
+   * @param fieldPlan Plan of the map field which has to be assigned to
    * @param value Previously looked up value
    * @return Value to assign to the field
    */
-  private Object handleResolveMapField(Field f, Object value) throws Exception {
-    List<Class<?>> genericTypes = getGenericTypes(f);
-    assert genericTypes != null && genericTypes.size() == 2;
+  private Object handleResolveMapField(SectionMappingPlan.FieldPlan fieldPlan, Object value) throws Exception {
+    List<Class<?>> genericTypes = requireGenericTypes(fieldPlan, 2);
 
     Map<Object, Object> result = new LinkedHashMap<>();
 
@@ -321,13 +276,12 @@ public class ConfigMapper implements IConfigMapper {
 
   /**
    * Handles resolving a field of type list based on a previously looked up value
-   * @param f List field which has to be assigned to
+   * @param fieldPlan Plan of the list field which has to be assigned to
    * @param value Previously looked up value
    * @return Value to assign to the field
    */
-  private List<Object> handleResolveListField(Field f, Object value) throws Exception {
-    List<Class<?>> genericTypes = getGenericTypes(f);
-    assert genericTypes != null && genericTypes.size() == 1;
+  private List<Object> handleResolveListField(SectionMappingPlan.FieldPlan fieldPlan, Object value) throws Exception {
+    List<Class<?>> genericTypes = requireGenericTypes(fieldPlan, 1);
 
     List<Object> result = new ArrayList<>();
 
@@ -381,19 +335,16 @@ public class ConfigMapper implements IConfigMapper {
    * the source (either a path or a source map).
    * @param root Root node of this section (null means config root)
    * @param source Map to resolve from instead of querying the config, optional
-   * @param f Field which has to be assigned to
+   * @param fieldPlan Plan of the field which has to be assigned to
    * @return Value to be assigned to the field
    */
-  private @Nullable Object resolveFieldValue(@Nullable String root, @Nullable Map<?, ?> source, Field f, Class<?> type) throws Exception {
-    CSNamed nameAnnotation = f.getAnnotation(CSNamed.class);
-    String fieldName = nameAnnotation == null ? f.getName() : nameAnnotation.name();
-    String path = f.isAnnotationPresent(CSInlined.class) ? root : joinPaths(root, fieldName);
-    boolean always = f.isAnnotationPresent(CSAlways.class) || f.getDeclaringClass().isAnnotationPresent(CSAlways.class);
+  private @Nullable Object resolveFieldValue(@Nullable ConfigPath root, @Nullable Map<?, ?> source, SectionMappingPlan.FieldPlan fieldPlan, Class<?> type) throws Exception {
+    ConfigPath path = fieldPlan.inlined() ? root : ConfigPath.resolve(root, fieldPlan.name());
 
     Object value = resolvePath(path, source);
 
     // It's not marked as always and the current path doesn't exist: return null
-    if (!always && value == null)
+    if (!fieldPlan.always() && value == null)
       return null;
 
     if (ConfigSection.class.isAssignableFrom(type))
@@ -404,10 +355,10 @@ public class ConfigMapper implements IConfigMapper {
       return value;
 
     if (Map.class.isAssignableFrom(type))
-      return handleResolveMapField(f, value);
+      return handleResolveMapField(fieldPlan, value);
 
     if (List.class.isAssignableFrom(type) || Set.class.isAssignableFrom(type)) {
-      var result = handleResolveListField(f, value);
+      var result = handleResolveListField(fieldPlan, value);
 
       if (Set.class.isAssignableFrom(type))
         return new HashSet<>(result);
@@ -416,84 +367,23 @@ public class ConfigMapper implements IConfigMapper {
     }
 
     if (type.isArray())
-      return handleResolveArrayField(f, value);
+      return handleResolveArrayField(fieldPlan.field(), value);
 
     return convertType(value, type);
   }
 
   /**
-   * Join two config paths and account for all possible cases
-   * @param a Path A (or null/empty)
-   * @param b Path B (or null/empty)
-   * @return Path A joined with path B
-   */
-  private String joinPaths(@Nullable String a, @Nullable String b) {
-    if (a == null || a.isBlank())
-      return b;
-
-    if (b == null || b.isBlank())
-      return a;
-
-    if (a.endsWith(".") && b.startsWith("."))
-      return a + b.substring(1);
-
-    if (a.endsWith(".") || b.startsWith("."))
-      return a + b;
-
-    return a + "." + b;
-  }
-
-  /**
-   * Find the standard constructor of a class: constructor(EvaluationEnvironmentBuilder)
-   * or throw a runtime exception otherwise.
-   * @param type Type of the target class
-   * @return Standard constructor
-   */
-  private<T> Constructor<T> findStandardConstructor(Class<T> type) {
-    try {
-      Constructor<T> constructor = type.getDeclaredConstructor(InterpretationEnvironment.class, InterpreterLogger.class);
-
-      if (!Modifier.isPublic(constructor.getModifiers()))
-        throw new IllegalStateException("The standard-constructor of a config-section has to be public");
-
-      return constructor;
-    } catch (NoSuchMethodException e) {
-      throw new IllegalStateException("Please specify a standard-constructor of scheme (" + InterpretationEnvironment.class + ", " + InterpreterLogger.class + ") on " + type);
-    }
-  }
-
-  /**
-   * Get a list of generic types a field's type declares
-   * @param f Target field
-   * @return List of generic fields, null if the field's type is not generic
-   */
-  private @Nullable List<Class<?>> getGenericTypes(Field f) {
-    Type genericType = f.getGenericType();
-
-    if (!(genericType instanceof ParameterizedType))
-      return null;
-
-    Type[] types = ((ParameterizedType) genericType).getActualTypeArguments();
-    List<Class<?>> result = new ArrayList<>();
-
-    for (Type type : types)
-      result.add(unwrapType(type));
-
-    return result;
-  }
-
-  /**
-   * Attempts to unwrap a given type to its raw type class
-   * @param type Type to unwrap
-   * @return Unwrapped type
+   * Get the precomputed generic types of a field, asserting their expected count
+   * @param fieldPlan Plan of the target field
+   * @param expectedCount Number of generic types the field's type has to declare
+   * @return List of generic types
    */
-  private Class<?> unwrapType(Type type) {
-    if (type instanceof Class)
-      return (Class<?>) type;
+  private List<Class<?>> requireGenericTypes(SectionMappingPlan.FieldPlan fieldPlan, int expectedCount) {
+    List<Class<?>> genericTypes = fieldPlan.genericTypes();
 
-    if (type instanceof ParameterizedType)
-      return unwrapType(((ParameterizedType) type).getRawType());
+    if (genericTypes == null || genericTypes.size() != expectedCount)
+      throw new MappingError("Cannot unwrap the generic types of field " + fieldPlan.field().getName());
 
-    throw new MappingError("Cannot unwrap type of class=" + type.getClass());
+    return genericTypes;
   }
 }
@@ -0,0 +1,252 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.mapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable path of dot-separated keys within a config, which is split up into its segments
+ * exactly once. Instances are interned by their textual representation, such that repeatedly
+ * looking up the same path neither slices strings nor allocates anything.
+ */
+public final class ConfigPath {
+
+  // Bounds the interning tables, as paths may also be built from arbitrary user-input
+  private static final int MAX_INTERNED_PATHS = 16384;
+  private static final int MAX_RESOLVED_CHILDREN = 256;
+
+  private static final Map<String, ConfigPath> INTERNED_PATHS = new ConcurrentHashMap<>();
+
+  private final String path;
+  private final String[] segments;
+  private final String[] foldedSegments;
+  private final int hashCode;
+
+  private @Nullable ConfigPath parent;
+  private volatile @Nullable Map<String, ConfigPath> resolvedChildren;
+
+  private ConfigPath(String path, String[] segments) {
+    this.path = path;
+    this.segments = segments;
+    this.foldedSegments = new String[segments.length];
+    this.hashCode = Arrays.hashCode(segments);
+
+    for (int index = 0; index < segments.length; ++index)
+      this.foldedSegments[index] = foldKey(segments[index]);
+  }
+
+  /**
+   * Fold the case of a key, such that two keys equal each other ignoring case if their folded forms are equal
+   * @param key Key to fold
+   * @return Folded key, the key itself if it already was in its folded form
+   */
+  static String foldKey(String key) {
+    char[] foldedChars = null;
+
+    for (int index = 0; index < key.length(); ++index) {
+      char currentChar = key.charAt(index);
+      char foldedChar = Character.toLowerCase(Character.toUpperCase(currentChar));
+
+      if (foldedChar == currentChar)
+        continue;
+
+      if (foldedChars == null)
+        foldedChars = key.toCharArray();
+
+      foldedChars[index] = foldedChar;
+    }
+
+    return foldedChars == null ? key : new String(foldedChars);
+  }
+
+  /**
+   * Get the path object of a given path string, which is split at all of its dots
+   * @param path Path string, which may not be blank
+   * @return Interned path object, if the intern-table still had capacity left
+   */
+  public static ConfigPath of(String path) {
+    ConfigPath result = INTERNED_PATHS.get(path);
+
+    if (result != null)
+      return result;
+
+    // Keys should never contain any whitespace
+    String trimmedPath = path.trim();
+
+    if (trimmedPath.isBlank())
+      throw new IllegalArgumentException("Invalid path specified: " + trimmedPath);
+
+    result = new ConfigPath(path, trimmedPath.split("\\.", -1));
+
+    if (INTERNED_PATHS.size() >= MAX_INTERNED_PATHS)
+      return result;
+
+    ConfigPath existingResult = INTERNED_PATHS.putIfAbsent(path, result);
+    return existingResult == null ? result : existingResult;
+  }
+
+  /**
+   * Resolve a relative path against an optional base path
+   * @param base Base path (null means config root)
+   * @param relativePath Path relative to the base path (null/blank means the base path itself)
+   * @return Resolved path, null if both paths were absent, which means config root
+   */
+  public static @Nullable ConfigPath resolve(@Nullable ConfigPath base, @Nullable String relativePath) {
+    if (base == null)
+      return relativePath == null || relativePath.isBlank() ? null : of(relativePath);
+
+    return base.resolve(relativePath);
+  }
+
+  /**
+   * Resolve a relative path against this path, where results are cached on this instance
+   * @param relativePath Path relative to this path (null/blank means this path itself)
+   * @return Resolved path
+   */
+  public ConfigPath resolve(@Nullable String relativePath) {
+    if (relativePath == null || relativePath.isBlank())
+      return this;
+
+    Map<String, ConfigPath> children = getResolvedChildren();
+    ConfigPath result = children.get(relativePath);
+
+    if (result != null)
+      return result;
+
+    if (path.endsWith(".") && relativePath.startsWith("."))
+      result = of(path + relativePath.substring(1));
+    else if (path.endsWith(".") || relativePath.startsWith("."))
+      result = of(path + relativePath);
+    else
+      result = of(path + "." + relativePath);
+
+    if (children.size() < MAX_RESOLVED_CHILDREN)
+      children.putIfAbsent(relativePath, result);
+
+    return result;
+  }
+
+  /**
+   * Get the path which contains the last segment of this path
+   * @return Parent path, null if this path only consists of a single segment, which means config root
+   */
+  public @Nullable ConfigPath parent() {
+    if (segments.length == 1)
+      return null;
+
+    ConfigPath result = parent;
+
+    if (result == null) {
+      result = of(String.join(".", Arrays.asList(segments).subList(0, segments.length - 1)));
+      parent = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return Number of segments within this path
+   */
+  public int length() {
+    return segments.length;
+  }
+
+  /**
+   * @param index Index of the segment, starting at zero
+   * @return Segment at the given index, which may be blank on malformed paths
+   */
+  public String segment(int index) {
+    return segments[index];
+  }
+
+  /**
+   * @param index Index of the segment, starting at zero
+   * @return Case-folded segment at the given index, see {@link #foldKey}
+   */
+  String foldedSegment(int index) {
+    return foldedSegments[index];
+  }
+
+  /**
+   * @return Last segment of this path, which may be blank on malformed paths
+   */
+  public String lastSegment() {
+    return segments[segments.length - 1];
+  }
+
+  /**
+   * @return Whether any of this path's segments is blank, as is the case with surplus dots
+   */
+  public boolean hasBlankSegments() {
+    for (String segment : segments) {
+      if (segment.isBlank())
+        return true;
+    }
+
+    return false;
+  }
+
+  private Map<String, ConfigPath> getResolvedChildren() {
+    Map<String, ConfigPath> result = resolvedChildren;
+
+    if (result == null) {
+      synchronized (this) {
+        result = resolvedChildren;
+
+        if (result == null) {
+          result = new ConcurrentHashMap<>();
+          resolvedChildren = result;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other)
+      return true;
+
+    if (!(other instanceof ConfigPath otherPath))
+      return false;
+
+    return hashCode == otherPath.hashCode && Arrays.equals(segments, otherPath.segments);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.mapper;
+
+import at.blvckbytes.cm_mapper.mapper.section.ConfigSection;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+
+import java.util.List;
+
+/**
+ * Compile-time generated counterpart of a {@link ConfigSection} subclass, as emitted by the
+ * {@link at.blvckbytes.cm_mapper.mapper.processor.ConfigSectionProcessor}. If present next to a section
+ * type, the {@link ConfigMapper} takes the section's layout from here instead of discovering it
+ * reflectively, and constructs as well as assigns through plain Java code where possible.
+ */
+public interface GeneratedSectionMapper<T extends ConfigSection> {
+
+  /**
+   * Suffix appended to the binary name of a section type in order to name its generated mapper
+   */
+  String CLASS_NAME_SUFFIX = "$CSMapper";
+
+  /**
+   * @param hierarchyDepth Number of superclass-steps from the section type to the field's declaring class
+   * @param fieldName Name of the field within its declaring class
+   * @param name Name of the key the field is mapped from
+   * @param inlined Whether the field is read from the section's own path
+   * @param always Whether the field is to be mapped even if its key is absent
+   * @param decidable Whether the field's type is to be decided at runtime
+   * @param assignable Whether {@link #assign} is able to write to the field
+   */
+  record FieldDescriptor(
+    int hierarchyDepth,
+    String fieldName,
+    String name,
+    boolean inlined,
+    boolean always,
+    boolean decidable,
+    boolean assignable
+  ) {}
+
+  /**
+   * Create a new, empty instance by invoking the section's standard-constructor
+   */
+  T instantiate(InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger);
+
+  /**
+   * Get all applicable fields of the section, in the order of their discovery,
+   * where a field's index within this list is its index for {@link #assign}
+   */
+  List<FieldDescriptor> getFields();
+
+  /**
+   * Assign a value to a field which has been marked as assignable
+   * @param instance Instance of the section to assign on
+   * @param fieldIndex Index of the field within {@link #getFields}
+   * @param value Value to assign, which has to be compatible with the field's type
+   */
+  void assign(T instance, int fieldIndex, Object value);
+
+  /*
+    Unboxing conversions for primitive fields, as used by generated mappers, which accept exactly those
+    values that reflective field-writes accept as well, namely the primitive's own wrapper as well as
+    all wrappers which can be widened to the primitive, such that both paths behave the same.
+  */
+
+  static boolean toBoolean(Object value) {
+    if (value instanceof Boolean booleanValue)
+      return booleanValue;
+
+    throw makeConversionError(value, boolean.class);
+  }
+
+  static byte toByte(Object value) {
+    if (value instanceof Byte byteValue)
+      return byteValue;
+
+    throw makeConversionError(value, byte.class);
+  }
+
+  static short toShort(Object value) {
+    if (value instanceof Short shortValue)
+      return shortValue;
+
+    if (value instanceof Byte byteValue)
+      return byteValue;
+
+    throw makeConversionError(value, short.class);
+  }
+
+  static char toChar(Object value) {
+    if (value instanceof Character charValue)
+      return charValue;
+
+    throw makeConversionError(value, char.class);
+  }
+
+  static int toInt(Object value) {
+    if (value instanceof Integer intValue)
+      return intValue;
+
+    if (value instanceof Character charValue)
+      return charValue;
+
+    if (value instanceof Short || value instanceof Byte)
+      return ((Number) value).intValue();
+
+    throw makeConversionError(value, int.class);
+  }
+
+  static long toLong(Object value) {
+    if (value instanceof Long longValue)
+      return longValue;
+
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Character)
+      return toInt(value);
+
+    throw makeConversionError(value, long.class);
+  }
+
+  static float toFloat(Object value) {
+    if (value instanceof Float floatValue)
+      return floatValue;
+
+    if (value instanceof Long longValue)
+      return longValue;
+
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Character)
+      return toInt(value);
+
+    throw makeConversionError(value, float.class);
+  }
+
+  static double toDouble(Object value) {
+    if (value instanceof Double doubleValue)
+      return doubleValue;
+
+    if (value instanceof Float floatValue)
+      return floatValue;
+
+    if (value instanceof Long longValue)
+      return longValue;
+
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Character)
+      return toInt(value);
+
+    throw makeConversionError(value, double.class);
+  }
+
+  private static IllegalArgumentException makeConversionError(Object value, Class<?> primitiveType) {
+    return new IllegalArgumentException("Cannot assign " + (value == null ? "null" : value.getClass().getName()) + " to a field of type " + primitiveType);
+  }
+}
@@ -36,24 +36,48 @@ public interface IConfig {
    */
   @Nullable Object get(@Nullable String path);
 
+  /**
+   * Get a value by its pre-split path
+   * @param path Path to identify the value (null means root)
+   */
+  @Nullable Object getAt(@Nullable ConfigPath path);
+
   /**
    * Set a value by its path
    * @param path Path to identify the value
    */
   void set(@Nullable String path, @Nullable Object value);
 
+  /**
+   * Set a value by its pre-split path
+   * @param path Path to identify the value (null means root)
+   */
+  void setAt(@Nullable ConfigPath path, @Nullable Object value);
+
   /**
    * Remove a key and all of its children by its path
    * @param path Path to identify the key
    */
   void remove(@Nullable String path);
 
+  /**
+   * Remove a key and all of its children by its pre-split path
+   * @param path Path to identify the key (null means root)
+   */
+  void removeAt(@Nullable ConfigPath path);
+
   /**
    * Check whether a given path exists within the configuration file
    * @param path Path to identify the value
    */
   boolean exists(@Nullable String path);
 
+  /**
+   * Check whether a given pre-split path exists within the configuration file
+   * @param path Path to identify the value (null means root)
+   */
+  boolean existsAt(@Nullable ConfigPath path);
+
   /**
    * Attach a comment to a specific path
    * @param path Path to attach to
@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.mapper;
+
+import at.blvckbytes.cm_mapper.mapper.section.*;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, precomputed description of how to map a given {@link ConfigSection} subclass,
+ * such that reflective discovery (walking the hierarchy, reading annotations, resolving
+ * generic types) only ever happens once per class, no matter how often it's mapped.
+ * Construction and field assignments are bound to method handles of a uniform type, such
+ * that they can be invoked exactly and inlined, instead of going through core reflection.
+ * If a {@link GeneratedSectionMapper} exists for the section type, its layout is taken over
+ * as-is and construction as well as assignment are delegated to it wherever possible.
+ */
+final class SectionMappingPlan {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(ConfigSection.class, InterpretationEnvironment.class, InterpreterLogger.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, ConfigSection.class, Object.class);
+
+  private static final ClassValue<SectionMappingPlan> PLANS = new ClassValue<>() {
+    @Override
+    protected SectionMappingPlan computeValue(Class<?> type) {
+      return new SectionMappingPlan(type.asSubclass(ConfigSection.class));
+    }
+  };
+
+  record FieldPlan(
+    Field field,
+    String name,
+    boolean inlined,
+    boolean always,
+    boolean decidable,
+    @Nullable List<Class<?>> genericTypes,
+    MethodHandle setter
+  ) {
+
+    /**
+     * Assign a value to this field on a given instance
+     * @param instance Instance of the section to assign on
+     * @param value Value to assign, which has to be compatible with the field's type
+     */
+    void assign(ConfigSection instance, Object value) throws Exception {
+      try {
+        setter.invokeExact(instance, value);
+      } catch (Exception | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private final MethodHandle constructor;
+
+  /**
+   * All applicable fields in the order of their discovery, as handed to {@link ConfigSection#afterParsing}
+   */
+  final List<Field> fields;
+
+  /**
+   * All applicable fields in the order they're to be mapped in, where decidable fields come last
+   */
+  final List<FieldPlan> mappingOrder;
+
+  private SectionMappingPlan(Class<? extends ConfigSection> type) {
+    List<Field> applicableFields = new ArrayList<>();
+    List<FieldPlan> knownTypePlans = new ArrayList<>();
+    List<FieldPlan> decidablePlans = new ArrayList<>();
+
+    GeneratedSectionMapper<?> generatedMapper = findGeneratedMapper(type);
+
+    if (generatedMapper != null) {
+      this.constructor = bindGeneratedConstructor(generatedMapper);
+
+      List<GeneratedSectionMapper.FieldDescriptor> descriptors = generatedMapper.getFields();
+
+      for (int fieldIndex = 0; fieldIndex < descriptors.size(); ++fieldIndex) {
+        GeneratedSectionMapper.FieldDescriptor descriptor = descriptors.get(fieldIndex);
+        Field f = locateDescribedField(type, descriptor);
+
+        f.setAccessible(true);
+        applicableFields.add(f);
+
+        FieldPlan fieldPlan = new FieldPlan(
+          f,
+          descriptor.name(),
+          descriptor.inlined(),
+          descriptor.always(),
+          descriptor.decidable(),
+          getGenericTypes(f),
+          descriptor.assignable() ? bindGeneratedSetter(generatedMapper, fieldIndex) : bindSetter(f)
+        );
+
+        if (fieldPlan.decidable())
+          decidablePlans.add(fieldPlan);
+        else
+          knownTypePlans.add(fieldPlan);
+      }
+    }
+
+    else {
+      this.constructor = bindConstructor(findStandardConstructor(type));
+
+      // Walk the class' hierarchy
+      Class<?> c = type;
+      while (c != Object.class) {
+        for (Field f : c.getDeclaredFields()) {
+          if (Modifier.isStatic(f.getModifiers()))
+            continue;
+
+          if (f.isAnnotationPresent(CSIgnore.class))
+            continue;
+
+          if (f.getType() == type)
+            throw new IllegalStateException("Sections cannot use self-referencing fields (" + type + ", " + f.getName() + ")");
+
+          f.setAccessible(true);
+          applicableFields.add(f);
+
+          FieldPlan fieldPlan = makeFieldPlan(f);
+
+          if (fieldPlan.decidable())
+            decidablePlans.add(fieldPlan);
+          else
+            knownTypePlans.add(fieldPlan);
+        }
+        c = c.getSuperclass();
+      }
+    }
+
+    // Decidable fields are read last, so that they have access to all known types
+    knownTypePlans.addAll(decidablePlans);
+
+    this.fields = Collections.unmodifiableList(applicableFields);
+    this.mappingOrder = Collections.unmodifiableList(knownTypePlans);
+  }
+
+  /**
+   * Get the cached mapping plan of a given section type, computing it on first access
+   * @param type Type of the config section
+   * @return Mapping plan of the section type
+   */
+  static SectionMappingPlan of(Class<? extends ConfigSection> type) {
+    return PLANS.get(type);
+  }
+
+  /**
+   * Create a new, empty instance of the planned section type by invoking its standard-constructor
+   * @param baseEnvironment Base environment to pass to the section
+   * @param interpreterLogger Interpreter logger to pass to the section
+   * @return Created instance
+   */
+  ConfigSection instantiate(InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) throws Exception {
+    try {
+      return (ConfigSection) constructor.invokeExact(baseEnvironment, interpreterLogger);
+    } catch (Exception | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static MethodHandle bindConstructor(Constructor<?> constructor) {
+    try {
+      // Public constructors of non-public classes are not accessible otherwise
+      constructor.setAccessible(true);
+      return LOOKUP.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Could not access the standard-constructor of " + constructor.getDeclaringClass(), e);
+    }
+  }
+
+  private static MethodHandle bindSetter(Field f) {
+    try {
+      return LOOKUP.unreflectSetter(f).asType(SETTER_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Could not access the field " + f.getName() + " of " + f.getDeclaringClass(), e);
+    }
+  }
+
+  /**
+   * Try to load the mapper which has been generated for a given section type at compile-time
+   * @param type Type of the config section
+   * @return Instance of the generated mapper, null if there was none generated
+   */
+  private static @Nullable GeneratedSectionMapper<?> findGeneratedMapper(Class<? extends ConfigSection> type) {
+    Class<?> mapperClass;
+
+    try {
+      mapperClass = Class.forName(type.getName() + GeneratedSectionMapper.CLASS_NAME_SUFFIX, true, type.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+
+    if (!GeneratedSectionMapper.class.isAssignableFrom(mapperClass))
+      return null;
+
+    try {
+      return (GeneratedSectionMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not instantiate the generated mapper " + mapperClass, e);
+    }
+  }
+
+  private static Field locateDescribedField(Class<?> type, GeneratedSectionMapper.FieldDescriptor descriptor) {
+    Class<?> declaringClass = type;
+
+    for (int i = 0; i < descriptor.hierarchyDepth(); ++i)
+      declaringClass = declaringClass.getSuperclass();
+
+    try {
+      return declaringClass.getDeclaredField(descriptor.fieldName());
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException("The generated mapper of " + type + " is out of date, as it describes the absent field " + descriptor.fieldName(), e);
+    }
+  }
+
+  private static MethodHandle bindGeneratedConstructor(GeneratedSectionMapper<?> generatedMapper) {
+    try {
+      return LOOKUP.findVirtual(GeneratedSectionMapper.class, "instantiate", MethodType.methodType(ConfigSection.class, InterpretationEnvironment.class, InterpreterLogger.class))
+        .bindTo(generatedMapper)
+        .asType(CONSTRUCTOR_TYPE);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException("Could not bind the generated constructor of " + generatedMapper.getClass(), e);
+    }
+  }
+
+  private static MethodHandle bindGeneratedSetter(GeneratedSectionMapper<?> generatedMapper, int fieldIndex) {
+    try {
+      MethodHandle assign = LOOKUP.findVirtual(GeneratedSectionMapper.class, "assign", MethodType.methodType(void.class, ConfigSection.class, int.class, Object.class))
+        .bindTo(generatedMapper);
+
+      return MethodHandles.insertArguments(assign, 1, fieldIndex).asType(SETTER_TYPE);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException("Could not bind the generated setter of " + generatedMapper.getClass(), e);
+    }
+  }
+
+  private static FieldPlan makeFieldPlan(Field f) {
+    CSNamed nameAnnotation = f.getAnnotation(CSNamed.class);
+
+    return new FieldPlan(
+      f,
+      nameAnnotation == null ? f.getName() : nameAnnotation.name(),
+      f.isAnnotationPresent(CSInlined.class),
+      f.isAnnotationPresent(CSAlways.class) || f.getDeclaringClass().isAnnotationPresent(CSAlways.class),
+      f.getType() == Object.class || f.isAnnotationPresent(CSDecide.class),
+      getGenericTypes(f),
+      bindSetter(f)
+    );
+  }
+
+  /**
+   * Find the standard constructor of a class: constructor(EvaluationEnvironmentBuilder)
+   * or throw a runtime exception otherwise.
+   * @param type Type of the target class
+   * @return Standard constructor
+   */
+  private static <T> Constructor<T> findStandardConstructor(Class<T> type) {
+    try {
+      Constructor<T> constructor = type.getDeclaredConstructor(InterpretationEnvironment.class, InterpreterLogger.class);
+
+      if (!Modifier.isPublic(constructor.getModifiers()))
+        throw new IllegalStateException("The standard-constructor of a config-section has to be public");
+
+      return constructor;
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Please specify a standard-constructor of scheme (" + InterpretationEnvironment.class + ", " + InterpreterLogger.class + ") on " + type);
+    }
+  }
+
+  /**
+   * Get a list of generic types a field's type declares
+   * @param f Target field
+   * @return List of generic fields, null if the field's type is not generic or cannot be unwrapped
+   */
+  private static @Nullable List<Class<?>> getGenericTypes(Field f) {
+    Type genericType = f.getGenericType();
+
+    if (!(genericType instanceof ParameterizedType))
+      return null;
+
+    Type[] types = ((ParameterizedType) genericType).getActualTypeArguments();
+    List<Class<?>> result = new ArrayList<>();
+
+    for (Type type : types) {
+      Class<?> unwrappedType = unwrapType(type);
+
+      if (unwrappedType == null)
+        return null;
+
+      result.add(unwrappedType);
+    }
+
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Attempts to unwrap a given type to its raw type class
+   * @param type Type to unwrap
+   * @return Unwrapped type, null if the type cannot be unwrapped
+   */
+  private static @Nullable Class<?> unwrapType(Type type) {
+    if (type instanceof Class)
+      return (Class<?>) type;
+
+    if (type instanceof ParameterizedType)
+      return unwrapType(((ParameterizedType) type).getRawType());
+
+    return null;
+  }
+}
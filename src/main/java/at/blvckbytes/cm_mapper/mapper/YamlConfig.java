@@ -24,7 +24,6 @@
 
 package at.blvckbytes.cm_mapper.mapper;
 
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
@@ -38,44 +37,711 @@ import org.yaml.snakeyaml.representer.Representer;
 
 import java.io.*;
 import java.util.*;
-import java.util.function.Predicate;
-import java.util.function.Supplier;
+import java.util.function.Consumer;
 
+/**
+ * Configuration backed by a tree of YAML nodes. Once published, a tree is never modified again, such that
+ * reads may happen concurrently from any thread without locking. Writes are serialized and copy only the
+ * mappings along their paths, after which the resulting tree is published atomically.
+ */
 public class YamlConfig implements IConfig {
 
   private interface ExtensionCandidateHandler {
-    boolean wasMissingAndHasBeenExtended(NodeTuple tuple, String pathOfTuple, int indexOfTuple);
+    boolean wasMissingAndHasBeenExtended(NodeTuple tuple, ConfigPath pathOfTuple, int indexOfTuple);
   }
 
   private interface MappingNodeConsumer {
     void accept(MappingNode currentContainer, ScalarNode currentKey, MappingNode currentValue);
   }
 
-  private record MergedNodeTuple(
-    NodeTuple handle,
-    Runnable addRoutine,
-    Supplier<Boolean> removeRoutine
-  ) {}
+  /**
+   * Index of all scalar keys of a mapping by their case-folded form, each pointing at the first tuple
+   * of that key in order, as is the result of a linear case-insensitive scan. Merge keys are never indexed.
+   * An index may only be modified as long as its mapping is owned by a draft and thus not yet published.
+   */
+  private static final class KeyIndex {
+    private final MappingNode mapping;
+    private final Map<String, NodeTuple> tupleByFoldedKey;
+    private boolean hasFoldedDuplicates;
+
+    KeyIndex(MappingNode mapping) {
+      List<NodeTuple> tuples = mapping.getValue();
+
+      this.mapping = mapping;
+      this.tupleByFoldedKey = new HashMap<>(Math.max(16, tuples.size() * 4 / 3 + 1));
+
+      for (NodeTuple tuple : tuples) {
+        String foldedKey = foldedKeyOf(tuple);
+
+        if (foldedKey != null && tupleByFoldedKey.putIfAbsent(foldedKey, tuple) != null)
+          hasFoldedDuplicates = true;
+      }
+    }
+
+    private KeyIndex(MappingNode mapping, KeyIndex source) {
+      this.mapping = mapping;
+      this.tupleByFoldedKey = new HashMap<>(source.tupleByFoldedKey);
+      this.hasFoldedDuplicates = source.hasFoldedDuplicates;
+    }
+
+    /**
+     * @param mapping Copy of a mapping, holding the very same tuples
+     * @param source Index of the copied mapping, if available
+     * @return Index of the copy
+     */
+    static KeyIndex copyFor(MappingNode mapping, @Nullable KeyIndex source) {
+      return source == null ? new KeyIndex(mapping) : new KeyIndex(mapping, source);
+    }
+
+    @Nullable NodeTuple get(String foldedKey) {
+      return tupleByFoldedKey.get(foldedKey);
+    }
+
+    /**
+     * Has to be called after the tuple has been inserted into the mapping
+     */
+    void onAdded(NodeTuple tuple) {
+      String foldedKey = foldedKeyOf(tuple);
+
+      if (foldedKey == null)
+        return;
+
+      NodeTuple existingTuple = tupleByFoldedKey.putIfAbsent(foldedKey, tuple);
+
+      // There's a duplicate key, which may come before or after the new tuple
+      if (existingTuple != null && existingTuple != tuple) {
+        hasFoldedDuplicates = true;
+        tupleByFoldedKey.put(foldedKey, scan(mapping, foldedKey));
+      }
+    }
+
+    /**
+     * Has to be called after the tuple has been removed from the mapping
+     */
+    void onRemoved(NodeTuple tuple) {
+      String foldedKey = foldedKeyOf(tuple);
+
+      if (foldedKey == null || tupleByFoldedKey.get(foldedKey) != tuple)
+        return;
+
+      // Another tuple of the same key may now be the first one in order
+      NodeTuple nextTuple = hasFoldedDuplicates ? scan(mapping, foldedKey) : null;
+
+      if (nextTuple == null)
+        tupleByFoldedKey.remove(foldedKey);
+      else
+        tupleByFoldedKey.put(foldedKey, nextTuple);
+    }
+
+    /**
+     * Locates a key by a linear scan over all tuples of a mapping, which is used for mappings without an index
+     */
+    static @Nullable NodeTuple scan(MappingNode mapping, String foldedKey) {
+      for (NodeTuple tuple : mapping.getValue()) {
+        if (foldedKey.equals(foldedKeyOf(tuple)))
+          return tuple;
+      }
+
+      return null;
+    }
+
+    private static @Nullable String foldedKeyOf(NodeTuple tuple) {
+      // Merge keys should never be retrievable and thus be "hidden"
+      if (!(tuple.getKeyNode() instanceof ScalarNode keyNode) || keyNode.getTag() == Tag.MERGE)
+        return null;
+
+      return ConfigPath.foldKey(keyNode.getValue());
+    }
+  }
+
+  /**
+   * Index of all keys which have been commented out, per containing mapping, as built once per
+   * extension run by a single walk over the tree, instead of walking and scanning it for each key.
+   * BlockComment-s are members to their successive nodes: for mappings, in the list of tuples, on the
+   * ScalarNode-s of the keys; for lists, on the ScalarNode-s of items. If a comment is at the end of
+   * the file, it'll be an EndComment on the root MappingNode.
+   */
+  private static final class CommentedKeyIndex {
+    private final List<NodeTuple> tuplesInOrder;
+    private final Map<MappingNode, int[]> tupleRangeByMapping;
+    private final Map<MappingNode, Set<String>> commentedKeysByContainer;
+    private final Set<String> endCommentKeys;
+    private final int[] maxLineUpTo;
+
+    CommentedKeyIndex(MappingNode rootNode) {
+      this.tuplesInOrder = new ArrayList<>();
+      this.tupleRangeByMapping = new IdentityHashMap<>();
+      this.commentedKeysByContainer = new IdentityHashMap<>();
+      this.endCommentKeys = new HashSet<>();
+
+      flattenTuples(rootNode);
+
+      this.maxLineUpTo = new int[tuplesInOrder.size()];
+
+      int maxLine = -1;
+      for (int tupleIndex = 0; tupleIndex < tuplesInOrder.size(); ++tupleIndex) {
+        Mark keyStart = tuplesInOrder.get(tupleIndex).getKeyNode().getStartMark();
+
+        if (keyStart != null)
+          maxLine = Math.max(maxLine, keyStart.getLine());
+
+        maxLineUpTo[tupleIndex] = maxLine;
+      }
+
+      addCommentedKeys(rootNode.getEndComments(), endCommentKeys);
+    }
+
+    /**
+     * @param key Key to check for
+     * @param container Deepest existing container of the key, as it has been when building this index
+     * @return Whether the key has been commented out within the given container
+     */
+    boolean isCommentedOut(String key, MappingNode container) {
+      if (endCommentKeys.contains(key))
+        return true;
+
+      return commentedKeysByContainer.computeIfAbsent(container, this::collectCommentedKeys).contains(key);
+    }
+
+    /**
+     * Has to be called after a tuple has been inserted into a copy of a container
+     * @param container Container as it has been when building this index
+     */
+    void onAdded(MappingNode container, NodeTuple tuple) {
+      Set<String> commentedKeys = commentedKeysByContainer.computeIfAbsent(container, this::collectCommentedKeys);
+      addCommentedKeys(tuple.getKeyNode().getBlockComments(), commentedKeys);
+    }
+
+    private Set<String> collectCommentedKeys(MappingNode container) {
+      Set<String> result = new HashSet<>();
+
+      // Possibly, a key which is not the last has been commented out
+      for (NodeTuple containerTuple : container.getValue())
+        addCommentedKeys(containerTuple.getKeyNode().getBlockComments(), result);
+
+      // Possibly, the last key has been commented out, look at the next node's comments
+      NodeTuple nextTuple = findNextTuple(container);
 
-  private record Tuple<A, B>(A a, B b) {}
+      if (nextTuple != null)
+        addCommentedKeys(nextTuple.getKeyNode().getBlockComments(), result);
 
-  private record LocateNodeResult(@Nullable Node node, Stack<MappingNode> containerStack) {
-    @Nullable MappingNode getLastContainer() {
-      if (containerStack.isEmpty())
+      return result;
+    }
+
+    /**
+     * Find the first tuple in tree-order that's after the container and either on same indent
+     * or less (maybe that's redundant), while skipping over the container's own tuples
+     */
+    private @Nullable NodeTuple findNextTuple(MappingNode container) {
+      Mark containerStart = container.getStartMark();
+      int[] containerRange = tupleRangeByMapping.get(container);
+
+      // Containers which have been created programmatically have no position to compare against
+      if (containerStart == null || containerRange == null)
         return null;
 
-      return containerStack.pop();
+      // Tuples in order before the container are only ever taken into account if they're positioned
+      // after it, which is only the case for tuples which have been relocated by merge keys
+      if (containerRange[0] > 0 && maxLineUpTo[containerRange[0] - 1] > containerStart.getLine()) {
+        NodeTuple result = findNextTuple(containerStart, 0, containerRange[0]);
+
+        if (result != null)
+          return result;
+      }
+
+      return findNextTuple(containerStart, containerRange[1], tuplesInOrder.size());
+    }
+
+    private @Nullable NodeTuple findNextTuple(Mark containerStart, int fromIndex, int toIndex) {
+      for (int tupleIndex = fromIndex; tupleIndex < toIndex; ++tupleIndex) {
+        NodeTuple tuple = tuplesInOrder.get(tupleIndex);
+        Mark otherStart = tuple.getKeyNode().getStartMark();
+
+        if (otherStart == null)
+          continue;
+
+        if (otherStart.getLine() > containerStart.getLine() && otherStart.getColumn() <= containerStart.getColumn())
+          return tuple;
+      }
+
+      return null;
+    }
+
+    private void flattenTuples(Node node) {
+      if (node instanceof MappingNode mapping) {
+        int rangeStart = tuplesInOrder.size();
+
+        for (NodeTuple tuple : mapping.getValue()) {
+          tuplesInOrder.add(tuple);
+          flattenTuples(tuple.getValueNode());
+        }
+
+        tupleRangeByMapping.put(mapping, new int[] { rangeStart, tuplesInOrder.size() });
+        return;
+      }
+
+      if (node instanceof SequenceNode sequence) {
+        for (Node item : sequence.getValue())
+          flattenTuples(item);
+      }
+    }
+
+    /**
+     * Add every key a comment-line could be commenting out, which is every prefix up to one of its colons,
+     * such that a key is contained if and only if there's a line starting with the key, followed by a colon
+     */
+    private static void addCommentedKeys(@Nullable List<CommentLine> comments, Set<String> output) {
+      if (comments == null)
+        return;
+
+      for (CommentLine comment : comments) {
+        String value = comment.getValue().trim();
+
+        for (int colonIndex = value.indexOf(':'); colonIndex >= 0; colonIndex = value.indexOf(':', colonIndex + 1))
+          output.add(value.substring(0, colonIndex));
+      }
+    }
+  }
+
+  /**
+   * Working copy of the published tree for a single write-operation. Mappings are copied on their first
+   * modification and from then on modified in place, while all untouched nodes remain shared with the
+   * published tree, which readers may still be traversing. Nothing becomes visible before the commit.
+   */
+  private final class Draft {
+    private final Snapshot base;
+    private MappingNode root;
+
+    private final Set<MappingNode> ownedMappings;
+    private final Map<MappingNode, MappingNode> originalByCopy;
+    private final Map<MappingNode, KeyIndex> draftKeyIndices;
+    private final Map<Node, Node> copyByAnchoredOriginal;
+    private final List<MappingNode> replacedMappings;
+    private final List<Node> detachedNodes;
+    private final Set<NodeTuple> addedMergedTuples;
+    private final Set<NodeTuple> removedMergedTuples;
+
+    Draft() {
+      this.ownedMappings = Collections.newSetFromMap(new IdentityHashMap<>());
+      this.originalByCopy = new IdentityHashMap<>();
+      this.draftKeyIndices = new IdentityHashMap<>();
+      this.copyByAnchoredOriginal = new IdentityHashMap<>();
+      this.replacedMappings = new ArrayList<>();
+      this.detachedNodes = new ArrayList<>();
+      this.addedMergedTuples = Collections.newSetFromMap(new IdentityHashMap<>());
+      this.removedMergedTuples = Collections.newSetFromMap(new IdentityHashMap<>());
+
+      this.base = published;
+      this.root = base.root() == null ? createOwnedMapping() : base.root();
+    }
+
+    @Nullable Node locateNode(@Nullable ConfigPath path, boolean self) {
+      return YamlConfig.locateNode(this, base.keyIndices(), root, path, self);
+    }
+
+    /**
+     * Locates the deepest existing mapping node along a given path, which is the
+     * direct container of the path's last segment if all previous segments exist
+     * @param path Path to walk along
+     * @return Deepest existing mapping node
+     */
+    MappingNode locateDeepestContainer(ConfigPath path) {
+      MappingNode container = root;
+      Node node = root;
+
+      for (int segmentIndex = 0; segmentIndex < path.length(); ++segmentIndex) {
+        if (!(node instanceof MappingNode mapping))
+          break;
+
+        container = mapping;
+
+        NodeTuple keyValueTuple = keyIndexOf(mapping).get(path.foldedSegment(segmentIndex));
+
+        if (keyValueTuple == null)
+          break;
+
+        node = keyValueTuple.getValueNode();
+      }
+
+      return container;
+    }
+
+    /**
+     * @param mapping Mapping of this draft
+     * @return The published mapping it has been copied from, or the mapping itself if it's not a copy
+     */
+    MappingNode originalOf(MappingNode mapping) {
+      return originalByCopy.getOrDefault(mapping, mapping);
+    }
+
+    KeyIndex keyIndexOf(MappingNode mapping) {
+      KeyIndex keyIndex = draftKeyIndices.get(mapping);
+
+      if (keyIndex == null)
+        keyIndex = base.keyIndices().get(mapping);
+
+      if (keyIndex == null) {
+        keyIndex = new KeyIndex(mapping);
+        draftKeyIndices.put(mapping, keyIndex);
+      }
+
+      return keyIndex;
+    }
+
+    /**
+     * Walk along a path of mappings from the root, while taking ownership of every mapping on the way
+     * @param path Path of the target mapping, null means root
+     * @param forceCreateMappings Whether to create missing mappings along the way, replacing non-mapping values
+     * @return Owned mapping at the given path, null if it didn't exist and wasn't to be created
+     */
+    @Nullable MappingNode ownMappingAt(@Nullable ConfigPath path, boolean forceCreateMappings) {
+      MappingNode container = own(root);
+      root = container;
+
+      if (path == null)
+        return container;
+
+      for (int segmentIndex = 0; segmentIndex < path.length(); ++segmentIndex) {
+        NodeTuple keyValueTuple = keyIndexOf(container).get(path.foldedSegment(segmentIndex));
+
+        if (keyValueTuple != null && keyValueTuple.getValueNode() instanceof MappingNode childMapping) {
+          MappingNode ownedChildMapping = own(childMapping);
+
+          if (ownedChildMapping != childMapping)
+            replaceTuple(container, keyValueTuple, new NodeTuple(keyValueTuple.getKeyNode(), ownedChildMapping));
+
+          container = ownedChildMapping;
+          continue;
+        }
+
+        if (!forceCreateMappings)
+          return null;
+
+        // Target tuple could not be located or is of wrong value type, create a
+        // new tuple of value type mapping and set it within the tree
+        Node tupleKey = null;
+
+        // Try to reuse already present key nodes
+        if (keyValueTuple != null) {
+          tupleKey = keyValueTuple.getKeyNode();
+          removeTuple(container, keyValueTuple);
+        }
+
+        MappingNode createdMapping = createOwnedMapping();
+        insertTuple(container, -1, createNewTuple(tupleKey, path.segment(segmentIndex), createdMapping));
+        container = createdMapping;
+      }
+
+      return container;
+    }
+
+    /**
+     * Update the value at the key a given path points to within the tree
+     * @param keyPath Path to change the value at
+     * @param value New value node, leave null to just remove this node
+     */
+    void updatePathValue(ConfigPath keyPath, @Nullable Node value, boolean forceCreateMappings) {
+      MappingNode container = ownMappingAt(keyPath.parent(), forceCreateMappings);
+
+      if (container == null)
+        throw new IllegalArgumentException("Invalid path specified: " + keyPath);
+
+      // Check if there's an existing tuple
+      NodeTuple existingTuple = keyIndexOf(container).get(keyPath.foldedSegment(keyPath.length() - 1));
+      Node existingKey = null;
+      int existingIndex = -1;
+
+      // Remove an existing tuple from the map
+      if (existingTuple != null) {
+        existingKey = existingTuple.getKeyNode();
+        existingIndex = removeTuple(container, existingTuple);
+      }
+
+      // Create a new tuple for this value, if provided, while preserving its index within the list of tuples
+      if (value != null)
+        insertTuple(container, existingIndex, createNewTuple(existingKey, keyPath.lastSegment(), value));
+    }
+
+    /**
+     * Attach comments to the node a given path points to, which is copied beforehand
+     * @param path Path of the target node, which has to exist, null means root
+     * @param self Whether to attach to the key itself or to its value
+     * @param comments Comment lines to attach
+     */
+    void attachComment(@Nullable ConfigPath path, boolean self, List<CommentLine> comments) {
+      if (path == null) {
+        root = own(root);
+        root.setBlockComments(comments);
+        return;
+      }
+
+      MappingNode container = ownMappingAt(path.parent(), false);
+      NodeTuple keyValueTuple = container == null ? null : keyIndexOf(container).get(path.foldedSegment(path.length() - 1));
+
+      if (keyValueTuple == null)
+        throw new IllegalStateException("Cannot attach a comment to a non-existing path");
+
+      Node keyNode = keyValueTuple.getKeyNode();
+      Node valueNode = keyValueTuple.getValueNode();
+
+      if (self) {
+        keyNode = copyNode(keyNode);
+        keyNode.setBlockComments(comments);
+      } else {
+        valueNode = copyNode(valueNode);
+        valueNode.setBlockComments(comments);
+      }
+
+      replaceTuple(container, keyValueTuple, new NodeTuple(keyNode, valueNode));
+    }
+
+    /**
+     * Insert a tuple into an owned mapping and index all mappings within its value
+     * @param container Owned mapping to insert into
+     * @param index Index to insert at, where out-of-range indices append to the end
+     * @param tuple Tuple to insert
+     */
+    void insertTuple(MappingNode container, int index, NodeTuple tuple) {
+      List<NodeTuple> containerTuples = container.getValue();
+
+      if (index < 0 || index >= containerTuples.size())
+        containerTuples.add(tuple);
+      else
+        containerTuples.add(index, tuple);
+
+      keyIndexOf(container).onAdded(tuple);
+
+      forEachMappingRecursively(tuple.getValueNode(), Collections.newSetFromMap(new IdentityHashMap<>()), mapping -> {
+        if (!draftKeyIndices.containsKey(mapping) && !base.keyIndices().containsKey(mapping))
+          draftKeyIndices.put(mapping, new KeyIndex(mapping));
+      });
+    }
+
+    /**
+     * Remove a tuple from an owned mapping
+     * @param container Owned mapping to remove from
+     * @param tuple Tuple to remove
+     * @return Index the tuple has been removed at
+     */
+    int removeTuple(MappingNode container, NodeTuple tuple) {
+      List<NodeTuple> containerTuples = container.getValue();
+      int index = containerTuples.indexOf(tuple);
+
+      containerTuples.remove(index);
+      keyIndexOf(container).onRemoved(tuple);
+
+      detachedNodes.add(tuple.getValueNode());
+      unmarkMerged(tuple);
+
+      return index;
+    }
+
+    /**
+     * Replace a tuple of an owned mapping, where the new tuple is no longer considered to be
+     * merged, meaning that writing to a merged key persists it within the destination mapping
+     */
+    private void replaceTuple(MappingNode container, NodeTuple oldTuple, NodeTuple newTuple) {
+      replaceTuple(container, container.getValue().indexOf(oldTuple), oldTuple, newTuple);
+      unmarkMerged(oldTuple);
+    }
+
+    private void replaceTuple(MappingNode container, int index, NodeTuple oldTuple, NodeTuple newTuple) {
+      container.getValue().set(index, newTuple);
+
+      KeyIndex keyIndex = keyIndexOf(container);
+      keyIndex.onRemoved(oldTuple);
+      keyIndex.onAdded(newTuple);
+    }
+
+    private void unmarkMerged(NodeTuple tuple) {
+      if (!addedMergedTuples.remove(tuple) && base.mergedTuples().contains(tuple))
+        removedMergedTuples.add(tuple);
+    }
+
+    private boolean isMerged(NodeTuple tuple) {
+      return addedMergedTuples.contains(tuple) || (base.mergedTuples().contains(tuple) && !removedMergedTuples.contains(tuple));
+    }
+
+    private MappingNode createOwnedMapping() {
+      MappingNode mapping = createNewMappingNode(null);
+
+      ownedMappings.add(mapping);
+      draftKeyIndices.put(mapping, new KeyIndex(mapping));
+
+      return mapping;
+    }
+
+    /**
+     * Take ownership of a mapping by copying it, if it's not already owned
+     * @param mapping Mapping to own
+     * @return Owned mapping, which may be modified in place
+     */
+    MappingNode own(MappingNode mapping) {
+      if (ownedMappings.contains(mapping))
+        return mapping;
+
+      MappingNode copy = copyMapping(mapping, new ArrayList<>(mapping.getValue()));
+      KeyIndex sourceIndex = draftKeyIndices.get(mapping);
+
+      if (sourceIndex == null)
+        sourceIndex = base.keyIndices().get(mapping);
+
+      ownedMappings.add(copy);
+      originalByCopy.put(copy, mapping);
+      draftKeyIndices.put(copy, KeyIndex.copyFor(copy, sourceIndex));
+      replacedMappings.add(mapping);
+
+      if (mapping.getAnchor() != null)
+        copyByAnchoredOriginal.put(mapping, copy);
+
+      return copy;
+    }
+
+    private Node copyNode(Node node) {
+      if (node instanceof MappingNode mapping)
+        return own(mapping);
+
+      Node copy;
+
+      if (node instanceof ScalarNode scalar)
+        copy = new ScalarNode(scalar.getTag(), scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle());
+      else if (node instanceof SequenceNode sequence)
+        copy = copySequence(sequence, new ArrayList<>(sequence.getValue()));
+      else
+        throw new IllegalStateException("Encountered unknown node type >" + node.getType().getName() + "<");
+
+      copyAttributes(node, copy);
+
+      if (node.getAnchor() != null)
+        copyByAnchoredOriginal.put(node, copy);
+
+      return copy;
+    }
+
+    /**
+     * Replace all references to anchored nodes which have been copied by references to their copies,
+     * as aliases need to keep pointing at the very same node as their anchor
+     */
+    private Node relinkAnchoredCopies(Node node, Map<Node, Node> relinkedNodes) {
+      Node result = relinkedNodes.get(node);
+
+      if (result != null)
+        return result;
+
+      result = copyByAnchoredOriginal.getOrDefault(node, node);
+
+      // Guards against recursive structures
+      relinkedNodes.put(node, result);
+
+      if (result instanceof MappingNode mapping) {
+        for (int tupleIndex = 0; tupleIndex < mapping.getValue().size(); ++tupleIndex) {
+          NodeTuple tuple = mapping.getValue().get(tupleIndex);
+          Node keyNode = relinkAnchoredCopies(tuple.getKeyNode(), relinkedNodes);
+          Node valueNode = relinkAnchoredCopies(tuple.getValueNode(), relinkedNodes);
+
+          if (keyNode == tuple.getKeyNode() && valueNode == tuple.getValueNode())
+            continue;
+
+          mapping = own(mapping);
+          relinkedNodes.put(node, mapping);
+
+          NodeTuple relinkedTuple = new NodeTuple(keyNode, valueNode);
+          replaceTuple(mapping, tupleIndex, tuple, relinkedTuple);
+
+          // Relinking does not change the merged state, as opposed to writing
+          if (isMerged(tuple)) {
+            unmarkMerged(tuple);
+            addedMergedTuples.add(relinkedTuple);
+          }
+        }
+
+        return mapping;
+      }
+
+      if (result instanceof SequenceNode sequence) {
+        List<Node> items = sequence.getValue();
+        List<Node> relinkedItems = null;
+
+        for (int itemIndex = 0; itemIndex < items.size(); ++itemIndex) {
+          Node item = items.get(itemIndex);
+          Node relinkedItem = relinkAnchoredCopies(item, relinkedNodes);
+
+          if (relinkedItem != item && relinkedItems == null)
+            relinkedItems = new ArrayList<>(items);
+
+          if (relinkedItems != null)
+            relinkedItems.set(itemIndex, relinkedItem);
+        }
+
+        if (relinkedItems != null) {
+          result = copySequence(sequence, relinkedItems);
+          relinkedNodes.put(node, result);
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Publish the state of this draft, after which it may no longer be used
+     */
+    void commit() {
+      // Relinking may copy further anchored nodes, which previously visited references have to be redirected to
+      int relinkedCopies = 0;
+
+      while (copyByAnchoredOriginal.size() != relinkedCopies) {
+        relinkedCopies = copyByAnchoredOriginal.size();
+        root = (MappingNode) relinkAnchoredCopies(root, new IdentityHashMap<>());
+      }
+
+      Set<NodeTuple> newMergedTuples = base.mergedTuples();
+
+      if (!removedMergedTuples.isEmpty() || !addedMergedTuples.isEmpty()) {
+        newMergedTuples = Collections.newSetFromMap(new IdentityHashMap<>());
+        newMergedTuples.addAll(base.mergedTuples());
+        newMergedTuples.removeAll(removedMergedTuples);
+        newMergedTuples.addAll(addedMergedTuples);
+      }
+
+      Map<MappingNode, KeyIndex> newKeyIndices = new IdentityHashMap<>(base.keyIndices());
+      newKeyIndices.putAll(draftKeyIndices);
+
+      // Readers which are still traversing the previous tree will fall back to linear scans
+      for (MappingNode replacedMapping : replacedMappings)
+        newKeyIndices.remove(replacedMapping);
+
+      Set<Node> visitedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+      for (Node detachedNode : detachedNodes)
+        forEachMappingRecursively(detachedNode, visitedNodes, newKeyIndices::remove);
+
+      published = new Snapshot(root, base.header(), newKeyIndices, newMergedTuples);
     }
   }
 
   private static final Yaml YAML;
   private static final DumperOptions DUMPER_OPTIONS;
 
-  private final Map<MappingNode, Map<String, @Nullable NodeTuple>> locateKeyCache;
-  private final List<MergedNodeTuple> mergedTuples;
+  /**
+   * Published version of the tree, which is swapped out as a whole, such that readers
+   * always observe a root together with exactly the indices and merged tuples of that root
+   * @param root Root node, null if nothing has been loaded yet
+   * @param header Header preceding the first key
+   * @param keyIndices Indices of all mappings within the tree, which are never modified after publishing
+   * @param mergedTuples Tuples which have been added to their mapping by a merge-key
+   */
+  private record Snapshot(
+    @Nullable MappingNode root,
+    String header,
+    Map<MappingNode, KeyIndex> keyIndices,
+    Set<NodeTuple> mergedTuples
+  ) {
+    @Nullable Node locateNode(@Nullable ConfigPath path, boolean self) {
+      return YamlConfig.locateNode(null, keyIndices, root, path, self);
+    }
+  }
 
-  private MappingNode rootNode;
-  private String header;
+  private volatile Snapshot published;
 
   static {
     LoaderOptions loaderOptions = new LoaderOptions();
@@ -92,23 +758,37 @@ public class YamlConfig implements IConfig {
   }
 
   public YamlConfig() {
-    this.locateKeyCache = new HashMap<>();
-    this.mergedTuples = new ArrayList<>();
+    this.published = new Snapshot(null, "", Collections.emptyMap(), Collections.emptySet());
   }
 
+  /**
+   * @return Currently published root node, which has to be treated as immutable
+   */
   public MappingNode getRootNode() {
-    return this.rootNode;
+    return this.published.root();
   }
 
   public String getHeader() {
-    return this.header;
+    return this.published.header();
   }
 
-  public void clearKeyCache() {
-    this.locateKeyCache.clear();
+  /**
+   * Rebuild the key indices of the published tree, which is only ever
+   * required after having modified its nodes directly, bypassing this API
+   */
+  public synchronized void clearKeyCache() {
+    Snapshot snapshot = this.published;
+
+    if (snapshot.root() == null)
+      return;
+
+    Set<NodeTuple> merged = Collections.newSetFromMap(new IdentityHashMap<>());
+    merged.addAll(snapshot.mergedTuples());
+
+    publishRoot(snapshot.root(), snapshot.header(), merged);
   }
 
-  public void load(Reader reader) {
+  public synchronized void load(Reader reader) {
     Iterator<Node> nodes = YAML.composeAll(reader).iterator();
 
     Node root = nodes.hasNext() ? nodes.next() : createNewMappingNode(null);
@@ -119,22 +799,41 @@ public class YamlConfig implements IConfig {
     if (!(root instanceof MappingNode))
       throw new IllegalStateException("The top level of a config has to be a map.");
 
-    // Swap out root node and execute standard loading routines
-    this.rootNode = (MappingNode) root;
-    this.mergedTuples.clear();
-    extractHeader();
-    processMergeKeys(this.rootNode);
-    this.locateKeyCache.clear();
+    // The tree is still private to this call, so standard loading routines may modify it in place
+    MappingNode newRoot = (MappingNode) root;
+    Set<NodeTuple> newMergedTuples = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    String newHeader = extractHeader(newRoot);
+    processMergeKeys(newRoot, newMergedTuples);
+
+    publishRoot(newRoot, newHeader, newMergedTuples);
   }
 
-  private void processMergeKeys(MappingNode node) {
+  /**
+   * Publish an entirely new tree, which may not be modified in place from then on
+   * @param root Root of the new tree
+   * @param header Header of the new tree
+   * @param merged Tuples within the new tree which have been added by merge-keys
+   */
+  private void publishRoot(MappingNode root, String header, Set<NodeTuple> merged) {
+    Map<MappingNode, KeyIndex> newKeyIndices = new IdentityHashMap<>();
+
+    // Indices are built eagerly, as readers would otherwise have to fall back to linear scans
+    forEachMappingRecursively(root, Collections.newSetFromMap(new IdentityHashMap<>()), mapping -> {
+      newKeyIndices.put(mapping, new KeyIndex(mapping));
+    });
+
+    this.published = new Snapshot(root, header, newKeyIndices, merged);
+  }
+
+  private void processMergeKeys(MappingNode node, Set<NodeTuple> merged) {
     forAllMappingsRecursively(node, (currentContainer, currentKey, currentValue) -> {
       if (currentKey.getTag() == Tag.MERGE)
-        mergeNodes(currentContainer, currentValue);
+        mergeNodes(currentContainer, currentValue, merged);
     });
   }
 
-  private void mergeNodes(MappingNode destination, MappingNode source) {
+  private void mergeNodes(MappingNode destination, MappingNode source, Set<NodeTuple> merged) {
     for (NodeTuple sourceTuple : source.getValue()) {
       Node sourceKey = sourceTuple.getKeyNode();
       Node sourceValue = sourceTuple.getValueNode();
@@ -148,7 +847,7 @@ public class YamlConfig implements IConfig {
         if (!(sourceValue instanceof MappingNode))
           throw new IllegalStateException("Cannot merge a non-mapping node into another node");
 
-        mergeNodes(destination, (MappingNode) sourceValue);
+        mergeNodes(destination, (MappingNode) sourceValue, merged);
         continue;
       }
 
@@ -186,21 +885,13 @@ public class YamlConfig implements IConfig {
           break;
         }
 
-        mergeNodes((MappingNode) destinationValue, (MappingNode) sourceValue);
+        mergeNodes((MappingNode) destinationValue, (MappingNode) sourceValue, merged);
       }
 
       if (valueAbsent) {
         NodeTuple tuple = new NodeTuple(sourceKey, sourceValue);
-        MergedNodeTuple mergedTuple = new MergedNodeTuple(
-          tuple,
-          () -> destinationTuples.add(tuple),
-          () -> destinationTuples.remove(tuple)
-        );
-
-        mergedTuples.add(mergedTuple);
-
-        // Initially call the add routine
-        mergedTuple.addRoutine().run();
+        destinationTuples.add(tuple);
+        merged.add(tuple);
       }
     }
   }
@@ -209,22 +900,20 @@ public class YamlConfig implements IConfig {
    * Extract the header comment from the first key's first node tuple by taking as many
    * block comment lines as possible until a blank line occurs. If no blank line is to be
    * found, nothing will be extracted, as the comment is considered to be attached to the key.
+   * @param root Root of a tree which has not yet been published
+   * @return Extracted header, empty if there was none
    */
-  private void extractHeader() {
-    List<NodeTuple> rootTuples = this.rootNode.getValue();
+  private static String extractHeader(MappingNode root) {
+    List<NodeTuple> rootTuples = root.getValue();
 
-    if (rootTuples.isEmpty()) {
-      this.header = "";
-      return;
-    }
+    if (rootTuples.isEmpty())
+      return "";
 
     Node firstKey = rootTuples.get(0).getKeyNode();
     List<CommentLine> firstKeyBlockComments = firstKey.getBlockComments();
 
-    if (firstKeyBlockComments == null) {
-      this.header = "";
-      return;
-    }
+    if (firstKeyBlockComments == null)
+      return "";
 
     List<CommentLine> untouchedBlockComments = new ArrayList<>(firstKeyBlockComments);
 
@@ -261,111 +950,95 @@ public class YamlConfig implements IConfig {
       headerBuilder.setLength(0);
     }
 
-    this.header = headerBuilder.toString();
+    return headerBuilder.toString();
   }
 
-  public void save(Writer writer) throws IOException {
-    if (this.rootNode == null || this.rootNode.getValue().isEmpty()) {
+  public synchronized void save(Writer writer) throws IOException {
+    Snapshot snapshot = this.published;
+    MappingNode root = snapshot.root();
+
+    if (root == null || root.getValue().isEmpty()) {
       writer.write("");
       return;
     }
 
-    writer.write(this.header);
-    executeWhileMergedTuplesAbsent(() -> YAML.serialize(this.rootNode, writer));
-  }
+    writer.write(snapshot.header());
 
-  private void executeWhileMergedTuplesAbsent(Runnable executable) {
-    synchronized (this.mergedTuples) {
-      // If the remove routine yielded false, the element has no longer been in the list
-      // This means that somebody else removed it, and it thus should also not be added back later on
-      // Thus, remove it from the merged tuples list
-      this.mergedTuples.removeIf(mergedTuple -> !mergedTuple.removeRoutine().get());
-
-      executable.run();
-
-      for (MergedNodeTuple mergedTuple : this.mergedTuples)
-        mergedTuple.addRoutine().run();
+    if (snapshot.mergedTuples().isEmpty()) {
+      YAML.serialize(root, writer);
+      return;
     }
+
+    YAML.serialize(withoutMergedTuples(root, snapshot.mergedTuples(), new IdentityHashMap<>()), writer);
   }
 
-  private @Nullable NodeTuple findTupleNodeRecursively(
-    Node node,
-    Predicate<NodeTuple> matchPredicate,
-    Predicate<MappingNode> skipPredicate
-  ) {
-    NodeTuple result;
+  /**
+   * Get a view of a node without any tuples which have been added by merge-keys, as the published
+   * tree may not be modified; only collections which actually contain such tuples are copied
+   * @param node Node to get the view of
+   * @param merged Tuples which have been added by merge-keys
+   * @param views Views by their original node, such that anchors are still shared by their aliases
+   * @return View of the node, the node itself if it didn't contain any merged tuples
+   */
+  private Node withoutMergedTuples(Node node, Set<NodeTuple> merged, Map<Node, Node> views) {
+    Node result = views.get(node);
 
-    if (node instanceof MappingNode) {
-      if (skipPredicate.test((MappingNode) node))
-        return null;
+    if (result != null)
+      return result;
 
-      for (NodeTuple entry : ((MappingNode) node).getValue()) {
-        if (matchPredicate.test(entry))
-          return entry;
+    // Guards against recursive structures
+    views.put(node, node);
 
-        if ((result = findTupleNodeRecursively(entry.getValueNode(), matchPredicate, skipPredicate)) != null)
-          return result;
-      }
-    }
+    if (node instanceof MappingNode mapping) {
+      List<NodeTuple> tuples = mapping.getValue();
+      List<NodeTuple> viewTuples = null;
 
-    else if (node instanceof SequenceNode) {
-      for (Node entry : ((SequenceNode) node).getValue()) {
-        if ((result = findTupleNodeRecursively(entry, matchPredicate, skipPredicate)) != null)
-          return result;
-      }
-    }
+      for (int tupleIndex = 0; tupleIndex < tuples.size(); ++tupleIndex) {
+        NodeTuple tuple = tuples.get(tupleIndex);
 
-    return null;
-  }
+        if (merged.contains(tuple)) {
+          if (viewTuples == null)
+            viewTuples = new ArrayList<>(tuples.subList(0, tupleIndex));
+
+          continue;
+        }
 
-  private boolean isKeyCommentedOut(String key, Node container) {
-    // BlockComment-s are members to their successive nodes
-    // For mappings, in the list of tuples, on the ScalarNode-s of the keys
-    // For lists, on the ScalarNode-s of items
-    // If a comment is at the end of the file, it'll be an EndComment on the root MappingNode
+        Node keyView = withoutMergedTuples(tuple.getKeyNode(), merged, views);
+        Node valueView = withoutMergedTuples(tuple.getValueNode(), merged, views);
 
-    Predicate<CommentLine> commentedKeyMatcher = (comment) -> comment.getValue().trim().startsWith(key + ":");
+        if (viewTuples == null && (keyView != tuple.getKeyNode() || valueView != tuple.getValueNode()))
+          viewTuples = new ArrayList<>(tuples.subList(0, tupleIndex));
 
-    // Possibly, a key which is not the last has been commented out
-    if (container instanceof MappingNode) {
-      for (NodeTuple containerTuple : ((MappingNode) container).getValue()) {
-        if (containerTuple.getKeyNode().getBlockComments().stream().anyMatch(commentedKeyMatcher))
-          return true;
+        if (viewTuples != null)
+          viewTuples.add(keyView == tuple.getKeyNode() && valueView == tuple.getValueNode() ? tuple : new NodeTuple(keyView, valueView));
       }
-    }
 
-    // Possibly, the last key has been commented out
+      result = viewTuples == null ? mapping : copyMapping(mapping, viewTuples);
+    }
 
-    Mark containerStart = container.getStartMark();
+    else if (node instanceof SequenceNode sequence) {
+      List<Node> items = sequence.getValue();
+      List<Node> viewItems = null;
 
-    if (containerStart != null) {
-      // Find the first node that's after the container and either on same indent or less (maybe
-      // that's redundant) and skip over recursing down the current container.
-      NodeTuple nextTuple = findTupleNodeRecursively(
-        rootNode,
-        currentNode -> {
-          Mark otherStart = currentNode.getKeyNode().getStartMark();
+      for (int itemIndex = 0; itemIndex < items.size(); ++itemIndex) {
+        Node item = items.get(itemIndex);
+        Node itemView = withoutMergedTuples(item, merged, views);
 
-          return (
-            otherStart.getLine() > containerStart.getLine() &&
-              otherStart.getColumn() <= containerStart.getColumn()
-          );
-        },
-        currentContainer -> currentContainer == container
-      );
+        if (viewItems == null && itemView != item)
+          viewItems = new ArrayList<>(items.subList(0, itemIndex));
 
-      // Next node available - look at the next node's comments
-      if (nextTuple != null) {
-        if (nextTuple.getKeyNode().getBlockComments().stream().anyMatch(commentedKeyMatcher))
-          return true;
+        if (viewItems != null)
+          viewItems.add(itemView);
       }
-    }
 
-    // No next-node available (EOF) - wrap around to root node
+      result = viewItems == null ? sequence : copySequence(sequence, viewItems);
+    }
 
-    List<CommentLine> endComments = rootNode.getEndComments();
+    else
+      result = node;
 
-    return endComments != null && endComments.stream().anyMatch(commentedKeyMatcher);
+    views.put(node, result);
+    return result;
   }
 
   /**
@@ -374,39 +1047,43 @@ public class YamlConfig implements IConfig {
    * @param other Config to extend from
    * @return Number of updated keys
    */
-  public int extendMissingKeys(YamlConfig other) {
-    if (other.rootNode == null)
+  public synchronized int extendMissingKeys(YamlConfig other) {
+    MappingNode otherRoot = other.published.root();
+
+    if (otherRoot == null)
       throw new IllegalStateException("Other config has not yet been loaded");
 
-    return forEachKeyPathRecursively(other.rootNode, null, (tuple, pathOfTuple, indexOfTuple) -> {
-      if (this.exists(pathOfTuple))
+    Draft draft = new Draft();
+    CommentedKeyIndex commentedKeyIndex = new CommentedKeyIndex(draft.root);
+
+    int updatedKeys = forEachKeyPathRecursively(otherRoot, null, (tuple, pathOfTuple, indexOfTuple) -> {
+      if (draft.locateNode(pathOfTuple, true) != null)
         return false;
 
+      if (pathOfTuple.hasBlankSegments())
+        throw new IllegalArgumentException("Invalid path specified: " + pathOfTuple);
+
       String key = ((ScalarNode) tuple.getKeyNode()).getValue();
-      LocateNodeResult locateResult = locateNode(pathOfTuple, true, false);
-      Node parentNode = locateResult.getLastContainer();
 
-      if (parentNode != null && isKeyCommentedOut(key, parentNode))
+      if (commentedKeyIndex.isCommentedOut(key, draft.originalOf(draft.locateDeepestContainer(pathOfTuple))))
         return false;
 
-      MappingNode container = locateContainerNode(pathOfTuple, true).a();
-      List<NodeTuple> containerTuples = container.getValue();
+      MappingNode container = draft.ownMappingAt(pathOfTuple.parent(), true);
 
-      // The new key is at an index which doesn't yet exist, add to the end of the tuple list
-      if (indexOfTuple >= containerTuples.size()) {
-        containerTuples.add(tuple);
-        invalidateLocateKeyCacheFor(container, key);
-        return true;
-      }
+      // The new key is either inserted at the right index or added to the end of the tuple list
+      draft.insertTuple(container, indexOfTuple, tuple);
 
-      // Insert the new tuple at the right index
-      containerTuples.add(indexOfTuple, tuple);
-      invalidateLocateKeyCacheFor(container, key);
+      commentedKeyIndex.onAdded(draft.originalOf(container), tuple);
       return true;
     });
+
+    if (updatedKeys > 0)
+      draft.commit();
+
+    return updatedKeys;
   }
 
-  private int forEachKeyPathRecursively(MappingNode node, @Nullable String parentPath, ExtensionCandidateHandler handler) {
+  private int forEachKeyPathRecursively(MappingNode node, @Nullable ConfigPath parentPath, ExtensionCandidateHandler handler) {
     int updatedKeys = 0;
 
     List<NodeTuple> nodeTuples = node.getValue();
@@ -417,7 +1094,7 @@ public class YamlConfig implements IConfig {
 
       if (keyNode instanceof ScalarNode) {
         String keyString = ((ScalarNode) keyNode).getValue();
-        String keyPath = parentPath != null ? parentPath + "." + keyString : keyString;
+        ConfigPath keyPath = ConfigPath.resolve(parentPath, keyString);
 
         // Take the whole node from the other config in order to also carry over comments, formatting, etc
         boolean didConsumerUpdate = handler.wasMissingAndHasBeenExtended(tuple, keyPath, tupleIndex);
@@ -430,10 +1107,8 @@ public class YamlConfig implements IConfig {
         if (didConsumerUpdate)
           continue;
 
-        if (valueNode instanceof MappingNode) {
-          String nextKeyParentPath = parentPath == null ? keyString : parentPath + "." + keyString;
-          updatedKeys += forEachKeyPathRecursively((MappingNode) valueNode, nextKeyParentPath, handler);
-        }
+        if (valueNode instanceof MappingNode)
+          updatedKeys += forEachKeyPathRecursively((MappingNode) valueNode, keyPath, handler);
       }
     }
 
@@ -442,20 +1117,30 @@ public class YamlConfig implements IConfig {
 
   @Override
   public @Nullable Object get(@Nullable String path) {
-    LocateNodeResult target = locateNode(path, false, false);
-    return target.node == null ? null : unwrapNode(target.node);
+    return getAt(toConfigPath(path));
+  }
+
+  @Override
+  public @Nullable Object getAt(@Nullable ConfigPath path) {
+    Node target = published.locateNode(path, false);
+    return target == null ? null : unwrapNode(target);
   }
 
   @Override
   public void set(@Nullable String path, @Nullable Object value) {
+    setAt(toConfigPath(path), value);
+  }
+
+  @Override
+  public synchronized void setAt(@Nullable ConfigPath path, @Nullable Object value) {
     Node wrappedValue = wrapValue(value);
 
     if (path == null) {
       if (!(wrappedValue instanceof MappingNode))
         throw new IllegalArgumentException("Cannot exchange the root-node for a non-map node");
 
-      rootNode = (MappingNode) wrappedValue;
-      extractHeader();
+      MappingNode newRoot = (MappingNode) wrappedValue;
+      publishRoot(newRoot, extractHeader(newRoot), Collections.emptySet());
       return;
     }
 
@@ -464,8 +1149,13 @@ public class YamlConfig implements IConfig {
 
   @Override
   public void remove(@Nullable String path) {
+    removeAt(toConfigPath(path));
+  }
+
+  @Override
+  public synchronized void removeAt(@Nullable ConfigPath path) {
     if (path == null) {
-      rootNode = createNewMappingNode(null);
+      publishRoot(createNewMappingNode(null), published.header(), Collections.emptySet());
       return;
     }
 
@@ -480,16 +1170,22 @@ public class YamlConfig implements IConfig {
 
   @Override
   public boolean exists(@Nullable String path) {
+    return existsAt(toConfigPath(path));
+  }
+
+  @Override
+  public boolean existsAt(@Nullable ConfigPath path) {
     // For a key to exist, its path has to exist within the
     // config, even if it points at a null value
-    return locateNode(path, true, false).node != null;
+    return published.locateNode(path, true) != null;
   }
 
   @Override
-  public void attachComment(@Nullable String path, List<String> lines, boolean self) {
-    Node target = locateNode(path, self, false).node;
+  public synchronized void attachComment(@Nullable String path, List<String> lines, boolean self) {
+    ConfigPath configPath = toConfigPath(path);
+    Draft draft = new Draft();
 
-    if (target == null)
+    if (draft.locateNode(configPath, self) == null)
       throw new IllegalStateException("Cannot attach a comment to a non-existing path");
 
     List<CommentLine> comments = new ArrayList<>();
@@ -499,12 +1195,13 @@ public class YamlConfig implements IConfig {
       comments.add(new CommentLine(null, null, line, type));
     }
 
-    target.setBlockComments(comments);
+    draft.attachComment(configPath, self, comments);
+    draft.commit();
   }
 
   @Override
   public @Nullable List<String> readComment(@Nullable String path, boolean self) {
-    Node target = locateNode(path, self, false).node;
+    Node target = published.locateNode(toConfigPath(path), self);
 
     if (target == null)
       return null;
@@ -524,89 +1221,153 @@ public class YamlConfig implements IConfig {
     return comments;
   }
 
-  private Tuple<MappingNode, String> locateContainerNode(String keyPath, boolean forceCreateMappings) {
-    int lastDotIndex = keyPath.lastIndexOf('.');
-    String keyPart;
-    MappingNode container;
+  private static @Nullable ConfigPath toConfigPath(@Nullable String path) {
+    return path == null ? null : ConfigPath.of(path);
+  }
+
+  /**
+   * Update the value at the key a given path points to within a new version of the tree
+   * @param keyPath Path to change the value at
+   * @param value New value node, leave null to just remove this node
+   */
+  private void updatePathValue(ConfigPath keyPath, @Nullable Node value, boolean forceCreateMappings) {
+    if (keyPath.hasBlankSegments())
+      throw new IllegalArgumentException("Invalid path specified: " + keyPath);
 
-    // No dot in the path, the container is root and the key-part is just the path value
-    if (lastDotIndex < 0) {
-      container = rootNode;
-      keyPart = keyPath;
+    // Removing an absent key should not result in a new version of the tree
+    Snapshot snapshot = published;
+
+    if (value == null && snapshot.locateNode(keyPath, true) == null) {
+      ConfigPath containerPath = keyPath.parent();
+
+      if (containerPath != null && !(snapshot.locateNode(containerPath, false) instanceof MappingNode))
+        throw new IllegalArgumentException("Invalid path specified: " + keyPath);
+
+      return;
     }
 
-    // Get the value after the last dot as a substring and use that as the key-part
-    // Look up the container by the path provided before the last dot (in force mapping creation mode)
-    else {
-      keyPart = keyPath.substring(lastDotIndex + 1);
-      container = (MappingNode) locateNode(keyPath.substring(0, lastDotIndex), false, forceCreateMappings).node;
+    Draft draft = new Draft();
+    draft.updatePathValue(keyPath, value, forceCreateMappings);
+    draft.commit();
+  }
+
+  /**
+   * Locates a target node by its identifying path
+   * @param draft Draft to look up key indices in, null to only use those of the published tree
+   * @param keyIndices Key indices of the published tree
+   * @param root Root node to start at
+   * @param path Path to search for, null means root
+   * @param self Whether to locate the containing key or the value (self means the key)
+   * @return Target node, null if the target node didn't exist
+   */
+  private static @Nullable Node locateNode(@Nullable Draft draft, Map<MappingNode, KeyIndex> keyIndices, @Nullable MappingNode root, @Nullable ConfigPath path, boolean self) {
+    if (path == null)
+      return root;
+
+    Node node = root;
+    int lastSegmentIndex = path.length() - 1;
+
+    for (int segmentIndex = 0; segmentIndex <= lastSegmentIndex; ++segmentIndex) {
+      // Not a mapping node, cannot look up a path-part, the key has to be invalid
+      if (!(node instanceof MappingNode mapping))
+        return null;
+
+      NodeTuple keyValueTuple = locateKey(draft, keyIndices, mapping, path.foldedSegment(segmentIndex));
+
+      // Current path-part does not exist
+      if (keyValueTuple == null)
+        return null;
+
+      // On the last iteration and the key itself has been requested
+      if (segmentIndex == lastSegmentIndex && self)
+        node = keyValueTuple.getKeyNode();
+      else
+        node = keyValueTuple.getValueNode();
     }
 
-    if (container == null || keyPart.isBlank())
-      throw new IllegalArgumentException("Invalid path specified: " + keyPath);
+    return node;
+  }
+
+  /**
+   * Locates a target key's containing node tuple within a mapping node's list of tuples, ignoring case,
+   * where mappings of the published tree are indexed ahead of time, and a reader which still traverses
+   * an outdated version of the tree falls back to a linear scan for mappings which have been replaced since
+   * @param draft Draft to look up key indices in, null to only use those of the published tree
+   * @param keyIndices Key indices of the published tree
+   * @param node Node to search in
+   * @param foldedKey Target key, case-folded by {@link ConfigPath#foldKey}
+   * @return Target tuple if found, null on absent key
+   */
+  private static @Nullable NodeTuple locateKey(@Nullable Draft draft, Map<MappingNode, KeyIndex> keyIndices, MappingNode node, String foldedKey) {
+    if (draft != null)
+      return draft.keyIndexOf(node).get(foldedKey);
 
-    if (!keyPath.endsWith(keyPart))
-      throw new IllegalStateException("Could not locate the containing node for path: " + keyPath);
+    KeyIndex keyIndex = keyIndices.get(node);
 
-    return new Tuple<>(container, keyPart);
+    if (keyIndex == null)
+      return KeyIndex.scan(node, foldedKey);
+
+    return keyIndex.get(foldedKey);
   }
 
   /**
-   * Update the value at the key a given path points to within the tree
-   * @param keyPath Path to change the value at
-   * @param value New value node, leave null to just remove this node
+   * Call the consumer on all instances of a {@link MappingNode} within a node, including itself, where
+   * each mapping is only visited once, no matter how often it has been referenced by aliases
+   * @param node Node to start at
+   * @param visited Nodes which have already been visited
+   * @param consumer Mapping node consumer
    */
-  private void updatePathValue(String keyPath, @Nullable Node value, boolean forceCreateMappings) {
-    Tuple<MappingNode, String> containerAndKeyPart = locateContainerNode(keyPath, forceCreateMappings);
-    MappingNode container = containerAndKeyPart.a();
-    String keyPart = containerAndKeyPart.b();
-
-    // Check if there's an existing tuple
-    NodeTuple existingTuple = locateKey(container, keyPart);
-    Node existingKey = null;
-    int existingIndex = -1;
-
-    invalidateLocateKeyCacheFor(container, keyPart);
-
-    // Remove an existing tuple from the map
-    if (existingTuple != null) {
-      existingKey = existingTuple.getKeyNode();
-      existingIndex = container.getValue().indexOf(existingTuple);
-      container.getValue().remove(existingIndex);
-
-      // If the just removed tuple held a mapping node as it#s value, invalidate
-      // all children mappings within that tuple recursively
-      Node valueNode = existingTuple.getValueNode();
-      if (valueNode instanceof MappingNode) {
-        forAllMappingsRecursively((MappingNode) valueNode, (currentContainer, currentKey, currentValue) -> {
-          this.invalidateLocateKeyCacheFor(currentValue, currentKey.getValue());
-        });
+  private static void forEachMappingRecursively(Node node, Set<Node> visited, Consumer<MappingNode> consumer) {
+    if (!visited.add(node))
+      return;
+
+    if (node instanceof MappingNode mapping) {
+      consumer.accept(mapping);
+
+      for (NodeTuple tuple : mapping.getValue()) {
+        forEachMappingRecursively(tuple.getKeyNode(), visited, consumer);
+        forEachMappingRecursively(tuple.getValueNode(), visited, consumer);
       }
-    }
 
-    // Create a new tuple for this value, if provided
-    if (value != null) {
-      NodeTuple newTuple = createNewTuple(existingKey, keyPart, value);
+      return;
+    }
 
-      // Preserve its index within the list of tuples
-      if (existingIndex >= 0)
-        container.getValue().add(existingIndex, newTuple);
-      else
-        container.getValue().add(newTuple);
+    if (node instanceof SequenceNode sequence) {
+      for (Node item : sequence.getValue())
+        forEachMappingRecursively(item, visited, consumer);
     }
   }
 
   /**
-   * Invalidate a {@link #locateKey(MappingNode, String)} request cache entry for
-   * a specific node targeting a specific key lookup
-   * @param node Target node
-   * @param key Target key
+   * Create a copy of a mapping node which holds the given tuples, while preserving all of its attributes
+   * @param mapping Mapping to copy
+   * @param tuples Tuples of the copy
+   * @return Copied mapping
    */
-  private void invalidateLocateKeyCacheFor(MappingNode node, String key) {
-    Map<String, @Nullable NodeTuple> containerCache = this.locateKeyCache.get(node);
+  private static MappingNode copyMapping(MappingNode mapping, List<NodeTuple> tuples) {
+    MappingNode copy = new MappingNode(mapping.getTag(), true, tuples, mapping.getStartMark(), mapping.getEndMark(), mapping.getFlowStyle());
+    copy.setMerged(mapping.isMerged());
+    copyAttributes(mapping, copy);
+    return copy;
+  }
 
-    if (containerCache != null)
-      containerCache.remove(key);
+  /**
+   * Create a copy of a sequence node which holds the given items, while preserving all of its attributes
+   * @param sequence Sequence to copy
+   * @param items Items of the copy
+   * @return Copied sequence
+   */
+  private static SequenceNode copySequence(SequenceNode sequence, List<Node> items) {
+    SequenceNode copy = new SequenceNode(sequence.getTag(), true, items, sequence.getStartMark(), sequence.getEndMark(), sequence.getFlowStyle());
+    copyAttributes(sequence, copy);
+    return copy;
+  }
+
+  private static void copyAttributes(Node source, Node destination) {
+    destination.setAnchor(source.getAnchor());
+    destination.setBlockComments(source.getBlockComments());
+    destination.setInLineComments(source.getInLineComments());
+    destination.setEndComments(source.getEndComments());
   }
 
   /**
@@ -655,125 +1416,6 @@ public class YamlConfig implements IConfig {
     return new NodeTuple(keyNode, value);
   }
 
-  /**
-   * Locates a target node by its identifying path
-   * @param path Path to search for, null means root
-   * @param self Whether to locate the containing key or the value (self means the key)
-   * @return A tuple of the target node or null if the target node didn't exist
-   *         as well as a boolean marking whether this path was marked for expressions
-   */
-  private @NotNull LocateNodeResult locateNode(@Nullable String path, boolean self, boolean forceCreateMappings) {
-    if (path == null)
-      return new LocateNodeResult(rootNode, null);
-
-    // Keys should never contain any whitespace
-    path = path.trim();
-
-    if (path.isBlank())
-      throw new IllegalArgumentException("Invalid path specified: " + path);
-
-    Node node = rootNode;
-    Stack<MappingNode> containerStack = new Stack<>();
-
-    int endIndex = path.indexOf('.'), beginIndex = 0;
-
-    while (true) {
-
-      // No next dot available, go until the end of the path string
-      if (endIndex < 0)
-        endIndex = path.length();
-
-      // Substring between the current begin (inclusive) and the dot position (exclusive)
-      String pathPart = path.substring(beginIndex, endIndex);
-
-      // Not a mapping node, cannot look up a path-part, the key has to be invalid
-      if (!(node instanceof MappingNode mapping))
-        return new LocateNodeResult(null, containerStack);
-
-      containerStack.push(mapping);
-
-      NodeTuple keyValueTuple = locateKey(mapping, pathPart);
-
-      // Target tuple could not be located or is of wrong value type, create a
-      // new tuple of value type mapping and set it within the tree
-      if (forceCreateMappings && (keyValueTuple == null || !(keyValueTuple.getValueNode() instanceof MappingNode))) {
-        // Try to reuse already present key nodes
-        Node tupleKey = keyValueTuple == null ? null : keyValueTuple.getKeyNode();
-
-        List<NodeTuple> mappingTuples = mapping.getValue();
-        mappingTuples.remove(keyValueTuple);
-        keyValueTuple = createNewTuple(tupleKey, pathPart, createNewMappingNode(null));
-        mappingTuples.add(keyValueTuple);
-
-        // Invalidate the (null) cache for this newly added tuple
-        invalidateLocateKeyCacheFor(mapping, pathPart);
-      }
-
-      // Current path-part does not exist
-      if (keyValueTuple == null)
-        return new LocateNodeResult(null, containerStack);
-
-      // On the last iteration and the key itself has been requested
-      if (endIndex == path.length() && self)
-        node = keyValueTuple.getKeyNode();
-      else
-        node = keyValueTuple.getValueNode();
-
-      // Just processed until the end of the path string, exit
-      if (endIndex == path.length())
-        break;
-
-      // Go to the next key
-      beginIndex = endIndex + 1;
-      endIndex = path.indexOf('.', beginIndex);
-
-      if (node == null)
-        break;
-    }
-
-    return new LocateNodeResult(node, containerStack);
-  }
-
-  /**
-   * Locates a target key's containing node tuple within a mapping node's list of tuples
-   * @param node Node to search in
-   * @param key Target key
-   * @return Target tuple if found, null on absent key
-   */
-  private @Nullable NodeTuple locateKey(MappingNode node, String key) {
-    Map<String, @Nullable NodeTuple> nodeCache = locateKeyCache.computeIfAbsent(node, k -> new HashMap<>());
-
-    // Check cache before going through linear search
-    if (nodeCache.containsKey(key))
-      return nodeCache.get(key);
-
-    // Loop all mappings of this key
-    List<NodeTuple> entries = node.getValue();
-    for (NodeTuple entry : entries) {
-      Node keyNode = entry.getKeyNode();
-
-      // Not a scalar key
-      if (!(keyNode instanceof ScalarNode))
-        continue;
-
-      // Key mismatch
-      if (!((ScalarNode) keyNode).getValue().equalsIgnoreCase(key))
-        continue;
-
-      // Merge keys should never be retrievable and thus be "hidden"
-      if (entry.getKeyNode().getTag() == Tag.MERGE)
-        continue;
-
-      // Remember this call's yielded entry
-      nodeCache.put(key, entry);
-      return entry;
-    }
-
-    // Also remember failed lookups
-    nodeCache.put(key, null);
-    return null;
-  }
-
   /**
    * Unwraps any given node by unwrapping scalar values first, then - if applicable - collecting them
    * into maps or lists, as by the node's tag. Null tags will result in null values.
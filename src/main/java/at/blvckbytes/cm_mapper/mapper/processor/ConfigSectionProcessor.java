@@ -0,0 +1,330 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.mapper.processor;
+
+import at.blvckbytes.cm_mapper.mapper.GeneratedSectionMapper;
+import at.blvckbytes.cm_mapper.mapper.section.*;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Optional annotation processor which emits a {@link GeneratedSectionMapper} for every concrete
+ * {@link ConfigSection} subclass within the compilation, such that the mapper can skip reflective
+ * discovery of that section at runtime. Fields are assigned directly wherever the generated class,
+ * which resides in the section's package, has access to them; all other fields are still written to
+ * reflectively. As this processor is not registered as a service, it has to be requested explicitly,
+ * e.g. by listing it within the annotationProcessors of the maven-compiler-plugin.
+ */
+@SupportedAnnotationTypes("*")
+public class ConfigSectionProcessor extends AbstractProcessor {
+
+  private static final String ENVIRONMENT_TYPE = "at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment";
+  private static final String LOGGER_TYPE = "at.blvckbytes.component_markup.util.logging.InterpreterLogger";
+
+  private final Set<String> generatedTypes = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement configSectionType = processingEnv.getElementUtils().getTypeElement(ConfigSection.class.getCanonicalName());
+
+    if (configSectionType == null)
+      return false;
+
+    for (Element rootElement : roundEnv.getRootElements())
+      processRecursively(rootElement, configSectionType);
+
+    return false;
+  }
+
+  private void processRecursively(Element element, TypeElement configSectionType) {
+    if (!(element instanceof TypeElement type))
+      return;
+
+    for (Element enclosedElement : type.getEnclosedElements())
+      processRecursively(enclosedElement, configSectionType);
+
+    if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT))
+      return;
+
+    Types types = processingEnv.getTypeUtils();
+
+    if (!types.isSubtype(types.erasure(type.asType()), types.erasure(configSectionType.asType())))
+      return;
+
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+
+    if (!generatedTypes.add(binaryName))
+      return;
+
+    if (!isInstantiableFromOwnPackage(type))
+      return;
+
+    List<FieldModel> fields = collectFields(type);
+
+    if (fields == null)
+      return;
+
+    try {
+      writeMapper(type, binaryName, fields);
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write the generated mapper: " + e.getMessage(), type);
+    }
+  }
+
+  private record FieldModel(
+    VariableElement field,
+    int hierarchyDepth,
+    String declaringTypeName,
+    String name,
+    boolean inlined,
+    boolean always,
+    boolean decidable,
+    @Nullable String assignmentExpression
+  ) {}
+
+  /**
+   * Collects all applicable fields of a section type by walking its hierarchy, in the same order
+   * as the mapper discovers them reflectively
+   * @return List of fields, null if the section type is invalid and cannot be generated for
+   */
+  private @Nullable List<FieldModel> collectFields(TypeElement type) {
+    Types types = processingEnv.getTypeUtils();
+    PackageElement targetPackage = processingEnv.getElementUtils().getPackageOf(type);
+    TypeMirror sectionType = types.erasure(type.asType());
+
+    List<FieldModel> result = new ArrayList<>();
+    TypeElement currentType = type;
+    int hierarchyDepth = 0;
+
+    while (currentType != null && !currentType.getQualifiedName().contentEquals(Object.class.getName())) {
+      for (Element member : currentType.getEnclosedElements()) {
+        if (member.getKind() != ElementKind.FIELD)
+          continue;
+
+        VariableElement field = (VariableElement) member;
+        Set<Modifier> modifiers = field.getModifiers();
+
+        if (modifiers.contains(Modifier.STATIC))
+          continue;
+
+        if (field.getAnnotation(CSIgnore.class) != null)
+          continue;
+
+        TypeMirror fieldType = types.erasure(field.asType());
+
+        // Self-referencing sections are reported by the mapper at runtime
+        if (types.isSameType(fieldType, sectionType))
+          return null;
+
+        CSNamed nameAnnotation = field.getAnnotation(CSNamed.class);
+
+        boolean assignable = (
+          !modifiers.contains(Modifier.FINAL) &&
+          isAccessibleFrom(field, targetPackage) &&
+          isAccessibleFrom(currentType, targetPackage) &&
+          isAccessibleFrom(fieldType, targetPackage)
+        );
+
+        result.add(new FieldModel(
+          field,
+          hierarchyDepth,
+          currentType.getQualifiedName().toString(),
+          nameAnnotation == null ? field.getSimpleName().toString() : nameAnnotation.name(),
+          field.getAnnotation(CSInlined.class) != null,
+          field.getAnnotation(CSAlways.class) != null || currentType.getAnnotation(CSAlways.class) != null,
+          fieldType.toString().equals(Object.class.getName()) || field.getAnnotation(CSDecide.class) != null,
+          assignable ? makeAssignmentExpression(fieldType) : null
+        ));
+      }
+
+      TypeMirror superclass = currentType.getSuperclass();
+      currentType = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+      ++hierarchyDepth;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return Expression converting the value to assign to the field's type
+   */
+  private String makeAssignmentExpression(TypeMirror fieldType) {
+    // Casting to the wrapper would reject wrappers which reflective writes widen, e.g. an Integer into a long
+    if (fieldType.getKind().isPrimitive()) {
+      String primitiveName = fieldType.toString();
+      String conversionName = "to" + Character.toUpperCase(primitiveName.charAt(0)) + primitiveName.substring(1);
+      return GeneratedSectionMapper.class.getCanonicalName() + "." + conversionName + "(value)";
+    }
+
+    return "(" + fieldType + ") value";
+  }
+
+  private boolean isInstantiableFromOwnPackage(TypeElement type) {
+    PackageElement targetPackage = processingEnv.getElementUtils().getPackageOf(type);
+
+    if (!isAccessibleFrom(type, targetPackage))
+      return false;
+
+    // Inner classes require an enclosing instance
+    if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))
+      return false;
+
+    for (Element member : type.getEnclosedElements()) {
+      if (member.getKind() != ElementKind.CONSTRUCTOR || !member.getModifiers().contains(Modifier.PUBLIC))
+        continue;
+
+      List<? extends VariableElement> parameters = ((ExecutableElement) member).getParameters();
+
+      if (parameters.size() != 2)
+        continue;
+
+      if (!isOfType(parameters.get(0), ENVIRONMENT_TYPE) || !isOfType(parameters.get(1), LOGGER_TYPE))
+        continue;
+
+      return true;
+    }
+
+    // The standard-constructor's absence will be reported at runtime, as before
+    return false;
+  }
+
+  private boolean isOfType(VariableElement parameter, String qualifiedName) {
+    return processingEnv.getTypeUtils().erasure(parameter.asType()).toString().equals(qualifiedName);
+  }
+
+  private boolean isAccessibleFrom(TypeMirror type, PackageElement targetPackage) {
+    if (type.getKind() == TypeKind.ARRAY)
+      return isAccessibleFrom(((ArrayType) type).getComponentType(), targetPackage);
+
+    if (type.getKind() != TypeKind.DECLARED)
+      return type.getKind().isPrimitive();
+
+    return isAccessibleFrom(processingEnv.getTypeUtils().asElement(type), targetPackage);
+  }
+
+  private boolean isAccessibleFrom(Element element, PackageElement targetPackage) {
+    Elements elements = processingEnv.getElementUtils();
+
+    for (Element current = element; current != null && current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+      Set<Modifier> modifiers = current.getModifiers();
+
+      if (modifiers.contains(Modifier.PRIVATE))
+        return false;
+
+      if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(current).equals(targetPackage))
+        return false;
+    }
+
+    return true;
+  }
+
+  private void writeMapper(TypeElement type, String binaryName, List<FieldModel> fields) throws IOException {
+    Elements elements = processingEnv.getElementUtils();
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    String sectionName = type.getQualifiedName().toString();
+    String mapperBinaryName = binaryName + GeneratedSectionMapper.CLASS_NAME_SUFFIX;
+    String mapperSimpleName = packageName.isEmpty() ? mapperBinaryName : mapperBinaryName.substring(packageName.length() + 1);
+
+    String mapperInterface = GeneratedSectionMapper.class.getCanonicalName();
+    String descriptorClass = GeneratedSectionMapper.FieldDescriptor.class.getCanonicalName();
+
+    try (Writer writer = processingEnv.getFiler().createSourceFile(mapperBinaryName, type).openWriter()) {
+      if (!packageName.isEmpty())
+        writer.write("package " + packageName + ";\n\n");
+
+      writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+      writer.write("public final class " + mapperSimpleName + " implements " + mapperInterface + "<" + sectionName + "> {\n\n");
+
+      writer.write("  private static final java.util.List<" + descriptorClass + "> FIELDS = java.util.List.of(");
+
+      for (int fieldIndex = 0; fieldIndex < fields.size(); ++fieldIndex) {
+        FieldModel field = fields.get(fieldIndex);
+
+        writer.write(fieldIndex == 0 ? "\n" : ",\n");
+        writer.write(
+          "    new " + descriptorClass + "(" +
+            field.hierarchyDepth() + ", " +
+            elements.getConstantExpression(field.field().getSimpleName().toString()) + ", " +
+            elements.getConstantExpression(field.name()) + ", " +
+            field.inlined() + ", " +
+            field.always() + ", " +
+            field.decidable() + ", " +
+            (field.assignmentExpression() != null) +
+          ")"
+        );
+      }
+
+      writer.write("\n  );\n\n");
+
+      writer.write("  @Override\n");
+      writer.write("  public " + sectionName + " instantiate(" + ENVIRONMENT_TYPE + " baseEnvironment, " + LOGGER_TYPE + " interpreterLogger) {\n");
+      writer.write("    return new " + sectionName + "(baseEnvironment, interpreterLogger);\n");
+      writer.write("  }\n\n");
+
+      writer.write("  @Override\n");
+      writer.write("  public java.util.List<" + descriptorClass + "> getFields() {\n");
+      writer.write("    return FIELDS;\n");
+      writer.write("  }\n\n");
+
+      writer.write("  @Override\n");
+      writer.write("  public void assign(" + sectionName + " instance, int fieldIndex, Object value) {\n");
+      writer.write("    switch (fieldIndex) {\n");
+
+      for (int fieldIndex = 0; fieldIndex < fields.size(); ++fieldIndex) {
+        FieldModel field = fields.get(fieldIndex);
+
+        if (field.assignmentExpression() == null)
+          continue;
+
+        writer.write(
+          "      case " + fieldIndex + " -> ((" + field.declaringTypeName() + ") instance)." + field.field().getSimpleName() +
+          " = " + field.assignmentExpression() + ";\n"
+        );
+      }
+
+      writer.write("      default -> throw new IllegalArgumentException(\"Field \" + fieldIndex + \" cannot be assigned directly\");\n");
+      writer.write("    }\n");
+      writer.write("  }\n");
+      writer.write("}\n");
+    }
+  }
+}
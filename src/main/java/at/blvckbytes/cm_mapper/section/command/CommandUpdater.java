@@ -9,6 +9,8 @@ import org.bukkit.plugin.Plugin;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.logging.Level;
@@ -22,6 +24,9 @@ public class CommandUpdater {
   private final SimpleCommandMap commandMap;
   private final Map<String, Command> commandMapCommands;
 
+  // Labels within the command-map of all commands which have been registered by this updater
+  private final Map<Command, List<String>> labelsByCommand;
+
   private final Logger logger;
   private final String pluginPrefix;
 
@@ -35,6 +40,7 @@ public class CommandUpdater {
     this.commandMap = locateCommandMap(craftServerClass);
     this.commandMapCommands = locateCommandMapCommands(this.commandMap);
     this.syncCommandsMethod = locateSyncCommandsMethod(craftServerClass);
+    this.labelsByCommand = new IdentityHashMap<>();
   }
 
   public boolean tryUnregisterCommand(Command command) {
@@ -46,6 +52,17 @@ public class CommandUpdater {
 
       command.unregister(commandMap);
 
+      var registeredLabels = labelsByCommand.remove(command);
+
+      // Labels may have been taken over by other commands in the meantime, which are to be kept
+      if (registeredLabels != null) {
+        for (var registeredLabel : registeredLabels)
+          commandMapCommands.remove(registeredLabel, command);
+
+        return true;
+      }
+
+      // Not registered by this updater, so its labels are unknown
       var targetNames = new ArrayList<String>();
 
       for (var commandEntry : commandMapCommands.entrySet()) {
@@ -66,6 +83,7 @@ public class CommandUpdater {
   public boolean tryRegisterCommand(Command command) {
     try {
       commandMap.register(pluginPrefix, command);
+      labelsByCommand.put(command, collectRegisteredLabels(command));
       return true;
     } catch (Exception e) {
       logger.log(Level.SEVERE, "Could not register command " + command.getName(), e);
@@ -73,6 +91,30 @@ public class CommandUpdater {
     }
   }
 
+  /**
+   * The command-map registers the name and each alias of a command both as-is, unless taken, and
+   * prefixed by the plugin's name; only those labels which actually point at the command are kept
+   */
+  private List<String> collectRegisteredLabels(Command command) {
+    var registeredLabels = new ArrayList<String>();
+
+    collectRegisteredLabels(command, command.getName(), registeredLabels);
+
+    for (var alias : command.getAliases())
+      collectRegisteredLabels(command, alias, registeredLabels);
+
+    return registeredLabels;
+  }
+
+  private void collectRegisteredLabels(Command command, String label, List<String> output) {
+    var normalizedLabel = label.toLowerCase(Locale.ROOT).trim();
+
+    for (var candidate : new String[] { normalizedLabel, pluginPrefix + ":" + normalizedLabel }) {
+      if (commandMapCommands.get(candidate) == command && !output.contains(candidate))
+        output.add(candidate);
+    }
+  }
+
   public void trySyncCommands() {
     try {
       syncCommandsMethod.invoke(Bukkit.getServer());
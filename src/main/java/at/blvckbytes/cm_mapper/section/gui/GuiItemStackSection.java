@@ -1,11 +1,13 @@
 package at.blvckbytes.cm_mapper.section.gui;
 
 import at.blvckbytes.cm_mapper.cm.ComponentExpression;
+import at.blvckbytes.cm_mapper.cm.SlotSet;
 import at.blvckbytes.cm_mapper.mapper.section.CSIgnore;
 import at.blvckbytes.cm_mapper.section.item.ItemStackSection;
 import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
 import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
@@ -17,7 +19,7 @@ public class GuiItemStackSection extends ItemStackSection {
   private @Nullable ComponentExpression slots;
 
   @CSIgnore
-  private @Nullable Set<Integer> displaySlots;
+  private @Nullable SlotSet displaySlots;
 
   public GuiItemStackSection(InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) {
     super(baseEnvironment, interpreterLogger);
@@ -29,11 +31,15 @@ public class GuiItemStackSection extends ItemStackSection {
   }
 
   public void initializeDisplaySlots(InterpretationEnvironment inventoryEnvironment) {
-    displaySlots = ComponentExpression.asIntSet(slots, inventoryEnvironment);
+    displaySlots = ComponentExpression.asSlotSet(slots, inventoryEnvironment);
   }
 
   public Set<Integer> getDisplaySlots() {
-    return displaySlots == null ? Set.of() : displaySlots;
+    return getDisplaySlotSet().toSet();
+  }
+
+  public SlotSet getDisplaySlotSet() {
+    return displaySlots == null ? SlotSet.EMPTY : displaySlots;
   }
 
   public void renderInto(Inventory inventory, InterpretationEnvironment environment) {
@@ -43,9 +49,43 @@ public class GuiItemStackSection extends ItemStackSection {
     var item = build(environment);
     var inventorySize = inventory.getSize();
 
-    for (var slot : displaySlots) {
-      if (slot < inventorySize)
-        inventory.setItem(slot, item);
-    }
+    for (var slot = displaySlots.first(); slot >= 0 && slot < inventorySize; slot = displaySlots.next(slot + 1))
+      inventory.setItem(slot, item);
+  }
+
+  /**
+   * Render into all display-slots of a session, which only writes slots whose item changed
+   * @param session Session of the inventory to render into
+   * @param environment Environment to build the item in
+   */
+  public void renderInto(GuiRenderSession session, InterpretationEnvironment environment) {
+    if (displaySlots == null)
+      return;
+
+    placeInto(session, build(environment));
+  }
+
+  /**
+   * Place an already built item into all display-slots of a session, which only writes slots whose item changed
+   * @param session Session of the inventory to place into
+   * @param item Item, as built by {@link #build}
+   */
+  public void placeInto(GuiRenderSession session, ItemStack item) {
+    placeInto(session, item, session.beginRender());
+  }
+
+  /**
+   * Place an already built item into all display-slots of a session as part of a render, which only writes
+   * slots whose item changed and which have not yet been written to by a render that has begun later
+   * @param session Session of the inventory to place into
+   * @param item Item, as built by {@link #build}
+   * @param sequence Sequence of the render, see {@link GuiRenderSession#beginRender()}
+   */
+  public void placeInto(GuiRenderSession session, ItemStack item, long sequence) {
+    if (displaySlots == null)
+      return;
+
+    for (var slot = displaySlots.first(); slot >= 0; slot = displaySlots.next(slot + 1))
+      session.setItem(slot, item, sequence);
   }
 }
@@ -0,0 +1,105 @@
+package at.blvckbytes.cm_mapper.section.gui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendering-state of an open inventory, which remembers the last item written to each slot, such
+ * that re-rendering only writes slots whose item actually changed, as each write results in a
+ * slot-update being sent to all viewers. Slots which have not been written through this session
+ * yet are considered unknown and are thus always written. Each write belongs to a render, which is
+ * identified by its sequence, such that renders which complete out of order, as asynchronous ones
+ * may, never overwrite slots which a render that has begun later already wrote to.
+ */
+public class GuiRenderSession {
+
+  private final Inventory inventory;
+  private final @Nullable ItemStack[] lastItems;
+  private final boolean[] knownSlots;
+
+  // Sequence of the latest render which wrote to each slot
+  private final long[] slotSequences;
+
+  private final AtomicLong lastSequence;
+
+  public GuiRenderSession(Inventory inventory) {
+    this.inventory = inventory;
+    this.lastItems = new ItemStack[inventory.getSize()];
+    this.knownSlots = new boolean[lastItems.length];
+    this.slotSequences = new long[lastItems.length];
+    this.lastSequence = new AtomicLong();
+  }
+
+  public Inventory getInventory() {
+    return inventory;
+  }
+
+  /**
+   * Begin a new render, which supersedes all renders begun before it; may be called from any thread
+   * @return Sequence of the render, to write its items with, see {@link #setItem(int, ItemStack, long)}
+   */
+  public long beginRender() {
+    return lastSequence.incrementAndGet();
+  }
+
+  /**
+   * Write an item as a render of its own, see {@link #setItem(int, ItemStack, long)}
+   */
+  public boolean setItem(int slot, @Nullable ItemStack item) {
+    return setItem(slot, item, beginRender());
+  }
+
+  /**
+   * @param slot Slot to write to
+   * @param item Item to write, null to clear the slot
+   * @param sequence Sequence of the render the write belongs to, see {@link #beginRender()}
+   * @return Whether the slot has been written to, false if it already held an equal item, is out of
+   *         range or has already been written to by a render which has begun later
+   */
+  public boolean setItem(int slot, @Nullable ItemStack item, long sequence) {
+    if (slot < 0 || slot >= lastItems.length)
+      return false;
+
+    if (sequence < slotSequences[slot])
+      return false;
+
+    slotSequences[slot] = sequence;
+
+    var lastItem = lastItems[slot];
+
+    if (knownSlots[slot] && (lastItem == null ? item == null : lastItem.equals(item)))
+      return false;
+
+    inventory.setItem(slot, item);
+
+    // The caller may keep on modifying the item, which would go unnoticed otherwise
+    lastItems[slot] = item == null ? null : item.clone();
+    knownSlots[slot] = true;
+    return true;
+  }
+
+  /**
+   * Forget the last item of a slot, which has to be done whenever it has been modified
+   * without going through this session, as it will otherwise not be written again
+   * @param slot Slot to forget
+   */
+  public void invalidate(int slot) {
+    if (slot < 0 || slot >= lastItems.length)
+      return;
+
+    lastItems[slot] = null;
+    knownSlots[slot] = false;
+  }
+
+  /**
+   * Forget the last items of all slots, see {@link #invalidate(int)}
+   */
+  public void invalidateAll() {
+    Arrays.fill(lastItems, null);
+    Arrays.fill(knownSlots, false);
+  }
+}
@@ -12,15 +12,68 @@ import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvir
 import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public class GuiSection<T extends ConfigSection> extends ConfigSection {
 
   private static final int DEFAULT_ROWS = 3;
 
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(GuiItemStackSection.class, Object.class);
+
+  private record ItemAccessor(String name, MethodHandle getter) {
+
+    @Nullable GuiItemStackSection get(Object items) {
+      try {
+        return (GuiItemStackSection) getter.invokeExact(items);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Accessors of all item-fields by items-class, such that they're only ever discovered once per class
+   */
+  private static final ClassValue<List<ItemAccessor>> ITEM_ACCESSORS = new ClassValue<>() {
+    @Override
+    protected List<ItemAccessor> computeValue(Class<?> type) {
+      var accessors = new ArrayList<ItemAccessor>();
+
+      for (var field : type.getDeclaredFields()) {
+        if (!GuiItemStackSection.class.isAssignableFrom(field.getType()))
+          continue;
+
+        field.setAccessible(true);
+
+        try {
+          accessors.add(new ItemAccessor(field.getName(), LOOKUP.unreflectGetter(field).asType(GETTER_TYPE)));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("Could not access item-field " + field.getName() + " of " + type, e);
+        }
+      }
+
+      return Collections.unmodifiableList(accessors);
+    }
+  };
+
   protected @Nullable ComponentMarkup title;
   protected @Nullable ComponentExpression rows;
 
@@ -37,6 +90,10 @@ public class GuiSection<T extends ConfigSection> extends ConfigSection {
   @CSIgnore
   public InterpretationEnvironment inventoryEnvironment;
 
+  // All present item-sections by their field-names, in order of declaration
+  @CSIgnore
+  protected Map<String, GuiItemStackSection> itemSectionsByName;
+
   public GuiSection(Class<T> itemsSectionClass, InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) {
     super(baseEnvironment, interpreterLogger);
 
@@ -73,13 +130,102 @@ public class GuiSection<T extends ConfigSection> extends ConfigSection {
       .withVariable("number_of_rows", _rows)
       .withVariable("last_slot", lastSlot);
 
-    for (var field : itemsSectionClass.getDeclaredFields()) {
-      if (!GuiItemStackSection.class.isAssignableFrom(field.getType()))
+    var sectionsByName = new LinkedHashMap<String, GuiItemStackSection>();
+
+    for (var accessor : ITEM_ACCESSORS.get(itemsSectionClass)) {
+      var itemSection = accessor.get(items);
+
+      if (itemSection == null)
         continue;
 
-      field.setAccessible(true);
-      ((GuiItemStackSection) field.get(items)).initializeDisplaySlots(inventoryEnvironment);
+      itemSection.initializeDisplaySlots(inventoryEnvironment);
+      sectionsByName.put(accessor.name(), itemSection);
     }
+
+    itemSectionsByName = Collections.unmodifiableMap(sectionsByName);
+  }
+
+  /**
+   * @return All present item-sections of the items-section, in order of declaration
+   */
+  public Collection<GuiItemStackSection> getItemSections() {
+    return itemSectionsByName.values();
+  }
+
+  /**
+   * Render all item-sections into their display-slots
+   * @param inventory Inventory to render into
+   * @param environment Environment to build items in
+   */
+  public void renderAll(Inventory inventory, InterpretationEnvironment environment) {
+    for (var itemSection : itemSectionsByName.values())
+      itemSection.renderInto(inventory, environment);
+  }
+
+  /**
+   * Render all item-sections into their display-slots, while only writing slots whose item changed
+   * @param session Session of the inventory to render into
+   * @param environment Environment to build items in
+   */
+  public void renderAll(GuiRenderSession session, InterpretationEnvironment environment) {
+    for (var itemSection : itemSectionsByName.values())
+      itemSection.renderInto(session, environment);
+  }
+
+  /**
+   * Render all item-sections into their display-slots, while building all items in parallel on the worker-executor,
+   * such that only placing the finished items, which only writes slots whose item changed, is left to the main thread;
+   * items are never placed into slots which a render of the session that has begun later already wrote to
+   * @param session Session of the inventory to render into
+   * @param environment Environment to build items in, which must not be modified until completion
+   * @param workerExecutor Executor to build items on
+   * @param mainThreadExecutor Executor to place items on
+   * @return Future which completes after all items have been placed, or exceptionally without placing
+   *         any item if building one of them failed
+   */
+  public CompletableFuture<Void> renderAllAsync(
+    GuiRenderSession session,
+    InterpretationEnvironment environment,
+    Executor workerExecutor,
+    Executor mainThreadExecutor
+  ) {
+    var sequence = session.beginRender();
+    var itemSections = List.copyOf(itemSectionsByName.values());
+
+    return buildAllAsync(itemSections, itemSection -> itemSection.build(environment), workerExecutor)
+      .thenAcceptAsync(items -> {
+        for (var index = 0; index < items.size(); ++index)
+          itemSections.get(index).placeInto(session, items.get(index), sequence);
+      }, mainThreadExecutor);
+  }
+
+  /**
+   * Build an item for each source in parallel
+   * @param sources Sources to build items from
+   * @param builder Builder of an item by its source, which may yield null
+   * @param workerExecutor Executor to build items on
+   * @return Future of all items, in the order of their sources, which completes exceptionally if any build failed
+   */
+  protected static <S> CompletableFuture<List<ItemStack>> buildAllAsync(
+    List<? extends S> sources,
+    Function<? super S, ? extends ItemStack> builder,
+    Executor workerExecutor
+  ) {
+    var itemFutures = new ArrayList<CompletableFuture<? extends ItemStack>>(sources.size());
+
+    for (var source : sources)
+      itemFutures.add(CompletableFuture.supplyAsync(() -> builder.apply(source), workerExecutor));
+
+    return CompletableFuture
+      .allOf(itemFutures.toArray(CompletableFuture[]::new))
+      .thenApply(ignored -> {
+        var items = new ArrayList<ItemStack>(itemFutures.size());
+
+        for (var itemFuture : itemFutures)
+          items.add(itemFuture.join());
+
+        return items;
+      });
   }
 
   public Inventory createInventory(InterpretationEnvironment environment) {
@@ -91,6 +237,14 @@ public class GuiSection<T extends ConfigSection> extends ConfigSection {
     return Bukkit.createInventory(null, _rows * 9, titleComponent);
   }
 
+  /**
+   * @param environment Environment to render the title in
+   * @return Session of a newly created inventory, see {@link #createInventory}
+   */
+  public GuiRenderSession createRenderSession(InterpretationEnvironment environment) {
+    return new GuiRenderSession(createInventory(environment));
+  }
+
   public int getRows() {
     return _rows;
   }
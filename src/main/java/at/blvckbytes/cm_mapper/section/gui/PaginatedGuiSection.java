@@ -1,23 +1,35 @@
 package at.blvckbytes.cm_mapper.section.gui;
 
 import at.blvckbytes.cm_mapper.cm.ComponentExpression;
+import at.blvckbytes.cm_mapper.cm.SlotSet;
 import at.blvckbytes.cm_mapper.mapper.MappingError;
 import at.blvckbytes.cm_mapper.mapper.section.ConfigSection;
 import at.blvckbytes.cm_mapper.mapper.section.CSIgnore;
 import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
 import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
 public abstract class PaginatedGuiSection<T extends ConfigSection> extends GuiSection<T> {
 
   protected @Nullable ComponentExpression paginationSlots;
 
   @CSIgnore
-  private Set<Integer> _paginationSlots;
+  private SlotSet _paginationSlots;
+
+  // Pagination-slots in ascending order, which is the order entries are laid out in on each page
+  @CSIgnore
+  private int[] _paginationSlotArray;
 
   public PaginatedGuiSection(Class<T> itemsSectionClass, InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) {
     super(itemsSectionClass, baseEnvironment, interpreterLogger);
@@ -27,35 +39,211 @@ public abstract class PaginatedGuiSection<T extends ConfigSection> extends GuiSe
   public void afterParsing(List<Field> fields) throws Exception {
     super.afterParsing(fields);
 
-    _paginationSlots = ComponentExpression.asIntSet(paginationSlots, inventoryEnvironment);
+    _paginationSlots = ComponentExpression.asSlotSet(paginationSlots, inventoryEnvironment);
 
-    for (var paginationSlot : _paginationSlots) {
-      if (paginationSlot < 0 || paginationSlot > lastSlot)
-        throw new MappingError("Pagination slot " + paginationSlot + " out of range [0;" + lastSlot + "]");
-    }
+    // Slots are never negative, so only the highest slot needs to be checked
+    if (_paginationSlots.last() > lastSlot)
+      throw new MappingError("Pagination slot " + _paginationSlots.last() + " out of range [0;" + lastSlot + "]");
 
-    for (var field : itemsSectionClass.getDeclaredFields()) {
-      if (!GuiItemStackSection.class.isAssignableFrom(field.getType()))
-        continue;
+    _paginationSlotArray = new int[_paginationSlots.size()];
 
-      field.setAccessible(true);
+    for (int slot = _paginationSlots.first(), index = 0; slot >= 0; slot = _paginationSlots.next(slot + 1))
+      _paginationSlotArray[index++] = slot;
 
-      GuiItemStackSection itemSection = (GuiItemStackSection) field.get(items);
+    for (var itemEntry : itemSectionsByName.entrySet()) {
+      var itemSlots = itemEntry.getValue().getDisplaySlotSet();
 
-      if (itemSection == null)
-        continue;
+      if (itemSlots.last() > lastSlot)
+        throw new MappingError("Slot " + itemSlots.last() + " of item " + itemEntry.getKey() + " out of range [0;" + lastSlot + "]");
 
-      for (var itemSlot : itemSection.getDisplaySlots()) {
-        if (itemSlot < 0 || itemSlot > lastSlot)
-          throw new MappingError("Slot " + itemSlot + " of item " + field.getName() + " out of range [0;" + lastSlot + "]");
-
-        if (_paginationSlots.contains(itemSlot))
-          throw new MappingError("Slot " + itemSlot + " of item " + field.getName() + " conflicts with pagination-slots " + paginationSlots);
-      }
+      if (itemSlots.intersects(_paginationSlots))
+        throw new MappingError("Slot " + itemSlots.intersection(_paginationSlots).first() + " of item " + itemEntry.getKey() + " conflicts with pagination-slots " + paginationSlots);
     }
   }
 
   public Set<Integer> getPaginationSlots() {
+    return _paginationSlots.toSet();
+  }
+
+  public SlotSet getPaginationSlotSet() {
     return _paginationSlots;
   }
+
+  /**
+   * @return Copy of all pagination-slots, in ascending order
+   */
+  public int[] getPaginationSlotArray() {
+    return _paginationSlotArray.clone();
+  }
+
+  /**
+   * @return Number of entries displayed on each page
+   */
+  public int getPageSize() {
+    return _paginationSlotArray.length;
+  }
+
+  /**
+   * @param totalEntries Number of entries to be paginated
+   * @return Number of pages required to display all entries, which is at least one
+   */
+  public int getPageCount(int totalEntries) {
+    if (totalEntries <= 0 || _paginationSlotArray.length == 0)
+      return 1;
+
+    return (totalEntries - 1) / _paginationSlotArray.length + 1;
+  }
+
+  /**
+   * Call the consumer with each entry visible on a given page, alongside the slot it's displayed in
+   * @param page Index of the page, starting at zero
+   * @param entries All entries, which are only accessed within the window of the page
+   * @param consumer Consumer of entries and their slots
+   * @return Number of entries on the page, such that the remaining slots may be cleared
+   */
+  public <E> int forEachOnPage(int page, List<? extends E> entries, ObjIntConsumer<? super E> consumer) {
+    var pageOffset = getPageOffset(page);
+
+    if (pageOffset >= entries.size())
+      return 0;
+
+    var pageEntries = (int) Math.min(_paginationSlotArray.length, entries.size() - pageOffset);
+
+    for (var index = 0; index < pageEntries; ++index)
+      consumer.accept(entries.get((int) pageOffset + index), _paginationSlotArray[index]);
+
+    return pageEntries;
+  }
+
+  /**
+   * Call the consumer with each entry visible on a given page, alongside the slot it's displayed in
+   * @param page Index of the page, starting at zero
+   * @param entries All entries, of which only the window of the page is ever consumed
+   * @param consumer Consumer of entries and their slots
+   * @return Number of entries on the page, such that the remaining slots may be cleared
+   */
+  public <E> int forEachOnPage(int page, Stream<? extends E> entries, ObjIntConsumer<? super E> consumer) {
+    var pageOffset = getPageOffset(page);
+    var iterator = entries.skip(pageOffset).limit(_paginationSlotArray.length).iterator();
+    var pageEntries = 0;
+
+    while (iterator.hasNext())
+      consumer.accept(iterator.next(), _paginationSlotArray[pageEntries++]);
+
+    return pageEntries;
+  }
+
+  /**
+   * Render the entries visible on a given page into the pagination-slots, while only writing slots whose item
+   * changed; pagination-slots without an entry are cleared. Item-sections are not rendered, see {@link #renderAll}
+   * @param session Session of the inventory to render into
+   * @param page Index of the page, starting at zero
+   * @param entries All entries, which are only accessed within the window of the page
+   * @param itemBuilder Builder of an entry's item, which may yield null
+   */
+  public <E> void renderPage(
+    GuiRenderSession session,
+    int page,
+    List<? extends E> entries,
+    Function<? super E, ? extends ItemStack> itemBuilder
+  ) {
+    var sequence = session.beginRender();
+    var pageEntries = forEachOnPage(page, entries, (entry, slot) -> session.setItem(slot, itemBuilder.apply(entry), sequence));
+    clearPaginationSlots(session, pageEntries, sequence);
+  }
+
+  /**
+   * Render the entries visible on a given page, see {@link #renderPage(GuiRenderSession, int, List, Function)}
+   * @param entries All entries, of which only the window of the page is ever consumed
+   */
+  public <E> void renderPage(
+    GuiRenderSession session,
+    int page,
+    Stream<? extends E> entries,
+    Function<? super E, ? extends ItemStack> itemBuilder
+  ) {
+    var sequence = session.beginRender();
+    var pageEntries = forEachOnPage(page, entries, (entry, slot) -> session.setItem(slot, itemBuilder.apply(entry), sequence));
+    clearPaginationSlots(session, pageEntries, sequence);
+  }
+
+  /**
+   * Render the entries visible on a given page into the pagination-slots, while building their items in parallel
+   * on the worker-executor, such that only placing the finished items is left to the main thread; pagination-slots
+   * without an entry are cleared. Items are never placed into slots which a render of the session that has begun
+   * later already wrote to, such that a page which finishes building after a subsequently requested page is dropped.
+   * Item-sections are not rendered, see {@link #renderAllAsync}
+   * @param session Session of the inventory to render into
+   * @param page Index of the page, starting at zero
+   * @param entries All entries, which are only accessed within the window of the page
+   * @param itemBuilder Builder of an entry's item, which may yield null
+   * @param workerExecutor Executor to build items on
+   * @param mainThreadExecutor Executor to place items on
+   * @return Future which completes after all items have been placed, or exceptionally without placing
+   *         any item if building one of them failed
+   */
+  public <E> CompletableFuture<Void> renderPageAsync(
+    GuiRenderSession session,
+    int page,
+    List<? extends E> entries,
+    Function<? super E, ? extends ItemStack> itemBuilder,
+    Executor workerExecutor,
+    Executor mainThreadExecutor
+  ) {
+    var pageEntries = new ArrayList<E>(getPageSize());
+    forEachOnPage(page, entries, (entry, slot) -> pageEntries.add(entry));
+    return renderPageEntriesAsync(session, pageEntries, itemBuilder, workerExecutor, mainThreadExecutor);
+  }
+
+  /**
+   * Render the entries visible on a given page, see {@link #renderPageAsync(GuiRenderSession, int, List, Function, Executor, Executor)}
+   * @param entries All entries, of which only the window of the page is ever consumed, on the calling thread
+   */
+  public <E> CompletableFuture<Void> renderPageAsync(
+    GuiRenderSession session,
+    int page,
+    Stream<? extends E> entries,
+    Function<? super E, ? extends ItemStack> itemBuilder,
+    Executor workerExecutor,
+    Executor mainThreadExecutor
+  ) {
+    var pageEntries = new ArrayList<E>(getPageSize());
+    forEachOnPage(page, entries, (entry, slot) -> pageEntries.add(entry));
+    return renderPageEntriesAsync(session, pageEntries, itemBuilder, workerExecutor, mainThreadExecutor);
+  }
+
+  private <E> CompletableFuture<Void> renderPageEntriesAsync(
+    GuiRenderSession session,
+    List<E> pageEntries,
+    Function<? super E, ? extends ItemStack> itemBuilder,
+    Executor workerExecutor,
+    Executor mainThreadExecutor
+  ) {
+    var sequence = session.beginRender();
+
+    return buildAllAsync(pageEntries, itemBuilder, workerExecutor)
+      .thenAcceptAsync(items -> {
+        for (var index = 0; index < items.size(); ++index)
+          session.setItem(_paginationSlotArray[index], items.get(index), sequence);
+
+        clearPaginationSlots(session, items.size(), sequence);
+      }, mainThreadExecutor);
+  }
+
+  /**
+   * @param session Session of the inventory to clear in
+   * @param fromIndex Index of the first pagination-slot to clear, as they're filled in ascending order
+   * @param sequence Sequence of the render, see {@link GuiRenderSession#beginRender()}
+   */
+  private void clearPaginationSlots(GuiRenderSession session, int fromIndex, long sequence) {
+    for (var index = fromIndex; index < _paginationSlotArray.length; ++index)
+      session.setItem(_paginationSlotArray[index], null, sequence);
+  }
+
+  private long getPageOffset(int page) {
+    if (page < 0)
+      throw new IllegalArgumentException("Page " + page + " is negative");
+
+    return (long) page * _paginationSlotArray.length;
+  }
 }
@@ -2,11 +2,12 @@ package at.blvckbytes.cm_mapper.section.item;
 
 import at.blvckbytes.cm_mapper.cm.ComponentExpression;
 import at.blvckbytes.cm_mapper.cm.ComponentMarkup;
+import at.blvckbytes.cm_mapper.mapper.section.CSIgnore;
 import at.blvckbytes.cm_mapper.mapper.section.ConfigSection;
 import at.blvckbytes.component_markup.constructor.SlotType;
 import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
 import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
-import com.cryptomorin.xseries.XMaterial;
+import com.destroystokyo.paper.profile.PlayerProfile;
 import com.destroystokyo.paper.profile.ProfileProperty;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -14,37 +15,99 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class ItemStackSection extends ConfigSection {
 
+  private static final int MAX_CACHED_PROFILES = 1024;
+
+  // Least recently used profiles are evicted first, as heads of a GUI tend to be rendered repeatedly
+  private static final Map<String, PlayerProfile> PROFILE_BY_TEXTURES = new LinkedHashMap<>(16, .75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, PlayerProfile> eldest) {
+      return size() > MAX_CACHED_PROFILES;
+    }
+  };
+
   private @Nullable ComponentMarkup type;
   private @Nullable ComponentMarkup name;
   private @Nullable ComponentMarkup lore;
   private @Nullable ComponentExpression amount;
   private @Nullable ComponentMarkup textures;
 
+  // Whether each field renders the same result for every environment, as decided after parsing
+  @CSIgnore
+  private boolean staticType, staticName, staticLore, staticAmount, staticTextures;
+
+  // Material of a static type, as resolved after parsing
+  @CSIgnore
+  private @Nullable Material staticMaterial;
+
+  // Item with all static fields applied, built on first use, null if the type is not static; only ever cloned once published
+  @CSIgnore
+  private volatile @Nullable ItemStack template;
+
   public ItemStackSection(InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) {
     super(baseEnvironment, interpreterLogger);
   }
 
+  @Override
+  public void afterParsing(List<Field> fields) throws Exception {
+    super.afterParsing(fields);
+
+    staticType = type == null || type.isEnvironmentIndependent();
+    staticName = name == null || name.isEnvironmentIndependent();
+    staticLore = lore == null || lore.isEnvironmentIndependent();
+    staticAmount = amount == null;
+    staticTextures = textures == null || textures.isEnvironmentIndependent();
+
+    staticMaterial = staticType ? getMaterial(baseEnvironment) : null;
+    template = null;
+  }
+
+  /**
+   * @return Whether this item renders the same result for every environment, such that it's only ever built once
+   */
+  public boolean isStatic() {
+    return staticType && staticName && staticLore && staticAmount && staticTextures;
+  }
+
   public void patch(ItemStack item, InterpretationEnvironment environment) {
+    patch(item, environment, true, true);
+  }
+
+  /**
+   * Apply fields to an item, where fields which are absent are never applied
+   * @param item Item to apply to
+   * @param environment Environment to interpret in
+   * @param applyStatic Whether to apply fields which render the same result for every environment
+   * @param applyDynamic Whether to apply fields which depend on the environment
+   */
+  private void patch(ItemStack item, InterpretationEnvironment environment, boolean applyStatic, boolean applyDynamic) {
+    if (!applyStatic && !applyDynamic)
+      return;
+
     var meta = item.getItemMeta();
 
     if (meta == null)
       return;
 
-    if (amount != null) {
+    if (amount != null && (staticAmount ? applyStatic : applyDynamic)) {
       var amountValue = amount.interpret(environment);
 
       if (amountValue != null)
         item.setAmount((int) environment.getValueInterpreter().asLong(amountValue));
     }
 
-    if (name != null)
+    if (name != null && (staticName ? applyStatic : applyDynamic))
       meta.displayName(name.interpret(SlotType.ITEM_NAME, environment).get(0));
 
-    if (lore != null) {
+    if (lore != null && (staticLore ? applyStatic : applyDynamic)) {
       var finalLore = meta.lore();
       var additionalLore = lore.interpret(SlotType.ITEM_LORE, environment);
 
@@ -56,27 +119,72 @@ public class ItemStackSection extends ConfigSection {
       meta.lore(finalLore);
     }
 
-    if (textures != null) {
+    if (textures != null && (staticTextures ? applyStatic : applyDynamic)) {
       var texturesValue = textures.asPlainString(environment);
 
-      if (!texturesValue.isBlank() && meta instanceof SkullMeta skullMeta) {
-        var profile = Bukkit.createProfile(UUID.randomUUID(), null);
-        profile.setProperty(new ProfileProperty("textures", texturesValue));
-        skullMeta.setPlayerProfile(profile);
-      }
+      if (!texturesValue.isBlank() && meta instanceof SkullMeta skullMeta)
+        skullMeta.setPlayerProfile(getProfile(texturesValue));
     }
 
     item.setItemMeta(meta);
   }
 
+  /**
+   * Build the item, where all fields which render the same result for every environment are only ever
+   * applied once, to a template, which is then cloned, such that only dynamic fields are applied each time.
+   * May be called off the main thread, as long as the environment is not modified meanwhile: the item and its
+   * meta are only ever created, read and written while not yet shared with anyone, the template is never modified
+   * after having been published, where concurrent first uses may both build one, and the caches of materials
+   * and profiles are synchronized. The result must only be placed into an inventory on the main thread
+   * @param environment Environment to interpret in
+   * @return Built item, which may be modified
+   */
   public ItemStack build(InterpretationEnvironment environment) {
-    var result = new ItemStack(getMaterial(environment));
+    // The material of a template cannot be changed, so the whole item has to be built each time
+    if (!staticType) {
+      var result = new ItemStack(getMaterial(environment));
+      patch(result, environment);
+      return result;
+    }
 
-    patch(result, environment);
+    var result = getTemplate().clone();
+    patch(result, environment, false, true);
 
     return result;
   }
 
+  ItemStack getTemplate() {
+    var result = template;
+
+    if (result == null) {
+      result = new ItemStack(staticMaterial == null ? getMaterial(baseEnvironment) : staticMaterial);
+      patch(result, baseEnvironment, true, false);
+      template = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the profile carrying a textures-value, where equal values always result in the same profile-id,
+   * such that clients are able to recognize skins they've already downloaded
+   * @param texturesValue Value of the textures-property
+   * @return Profile carrying the textures-value
+   */
+  private static PlayerProfile getProfile(String texturesValue) {
+    synchronized (PROFILE_BY_TEXTURES) {
+      var profile = PROFILE_BY_TEXTURES.get(texturesValue);
+
+      if (profile == null) {
+        profile = Bukkit.createProfile(UUID.nameUUIDFromBytes(texturesValue.getBytes(StandardCharsets.UTF_8)), null);
+        profile.setProperty(new ProfileProperty("textures", texturesValue));
+        PROFILE_BY_TEXTURES.put(texturesValue, profile);
+      }
+
+      return profile;
+    }
+  }
+
   private Material getMaterial(InterpretationEnvironment environment) {
     if (type != null) {
       var typeName = type.asPlainString(environment);
@@ -84,10 +192,10 @@ public class ItemStackSection extends ConfigSection {
       if (typeName.isBlank())
         return Material.BARRIER;
 
-      var xMaterial = XMaterial.matchXMaterial(typeName);
+      var material = MaterialResolver.resolve(typeName);
 
-      if (xMaterial.isPresent())
-        return xMaterial.get().get();
+      if (material != null)
+        return material;
 
       type.log("Could not locate an XMaterial called \"" + typeName + "\"", null);
     }
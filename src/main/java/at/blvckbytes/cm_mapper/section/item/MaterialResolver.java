@@ -0,0 +1,79 @@
+package at.blvckbytes.cm_mapper.section.item;
+
+import com.cryptomorin.xseries.XMaterial;
+import org.bukkit.Material;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Resolves materials by their names through XMaterial, while remembering the results, including
+ * names which could not be resolved, such that matching against all constants only happens once
+ * per distinct name, instead of every time an item is built.
+ */
+public final class MaterialResolver {
+
+  private static final int MAX_CACHED_NAMES = 1024;
+
+  private static final MaterialResolver SHARED = new MaterialResolver(
+    name -> XMaterial.matchXMaterial(name).map(XMaterial::get),
+    MAX_CACHED_NAMES
+  );
+
+  private final Function<String, Optional<Material>> lookup;
+
+  // Least recently used names are evicted first, as names may also stem from arbitrary user-input
+  private final Map<String, Optional<Material>> materialByName;
+
+  /**
+   * @param lookup Lookup to resolve names which are not yet cached with
+   * @param maxCachedNames Maximum number of names to remember results of
+   */
+  MaterialResolver(Function<String, Optional<Material>> lookup, int maxCachedNames) {
+    this.lookup = lookup;
+    this.materialByName = new LinkedHashMap<>(16, .75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Optional<Material>> eldest) {
+        return size() > maxCachedNames;
+      }
+    };
+  }
+
+  /**
+   * @param name Name of the material, as accepted by {@link XMaterial#matchXMaterial(String)}
+   * @return Resolved material, null if there is no such material on this server-version
+   */
+  public static @Nullable Material resolve(String name) {
+    return SHARED.resolveCached(name);
+  }
+
+  @Nullable Material resolveCached(String name) {
+    var normalizedName = normalize(name);
+
+    synchronized (materialByName) {
+      var result = materialByName.get(normalizedName);
+
+      if (result != null)
+        return result.orElse(null);
+    }
+
+    var result = lookup.apply(name);
+
+    synchronized (materialByName) {
+      materialByName.put(normalizedName, result);
+    }
+
+    return result.orElse(null);
+  }
+
+  /**
+   * Normalize a name in such a way that names which XMaterial considers equal are also equal
+   */
+  private static String normalize(String name) {
+    return name.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.cm.ComponentExpression;
+import at.blvckbytes.cm_mapper.cm.SlotSet;
+import at.blvckbytes.cm_mapper.mapper.MappingError;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentExpressionTests {
+
+  private final TestHelper helper = new TestHelper();
+  private final InterpreterLogger nullLogger = (view, position, message, e) -> {};
+
+  @Test
+  public void shouldInterpretExpressionsWithIdentifiersEveryTime() {
+    ComponentExpression expression = makeExpression("amount + 1");
+
+    assertEquals(2L, ((Number) expression.interpret(new InterpretationEnvironment().withVariable("amount", 1))).longValue());
+    assertEquals(3L, ((Number) expression.interpret(new InterpretationEnvironment().withVariable("amount", 2))).longValue());
+  }
+
+  @Test
+  public void shouldInterpretSlotSets() {
+    assertEquals(SlotSet.of(0, 5, 63), ComponentExpression.asSlotSet(makeExpression("[63, 0, 5]"), null));
+    assertSame(SlotSet.EMPTY, ComponentExpression.asSlotSet(null, null));
+  }
+
+  @Test
+  public void shouldRejectOutOfRangeSlotSets() {
+    helper.assertThrowsWithMsg(MappingError.class, () -> ComponentExpression.asSlotSet(makeExpression("[3, 64]"), null), "Slot 64 out of range");
+    helper.assertThrowsWithMsg(MappingError.class, () -> ComponentExpression.asSlotSet(makeExpression("[-1]"), null), "Slot -1 out of range");
+  }
+
+  private ComponentExpression makeExpression(String expression) {
+    return new ComponentExpression(expression, new InterpretationEnvironment(), nullLogger);
+  }
+}
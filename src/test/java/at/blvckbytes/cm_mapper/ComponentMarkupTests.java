@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.cm.ComponentMarkup;
+import at.blvckbytes.component_markup.constructor.SlotType;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentMarkupTests {
+
+  private final InterpreterLogger nullLogger = (view, position, message, e) -> {};
+
+  @Test
+  public void shouldCacheTextAndPlainTags() {
+    for (String markup : List.of("Hello, world!", "<red>Hello</red>", "<bold>Hello</bold> <italic>world</italic>")) {
+      ComponentMarkup componentMarkup = makeMarkup(markup);
+
+      assertTrue(componentMarkup.isEnvironmentIndependent(), markup);
+
+      List<Component> first = componentMarkup.interpret(SlotType.CHAT, makeEnvironment("a"));
+      List<Component> second = componentMarkup.interpret(SlotType.CHAT, makeEnvironment("b"));
+
+      assertEquals(first, second, markup);
+      assertSame(first.get(0), second.get(0), markup);
+      assertSame(componentMarkup.asPlainString(makeEnvironment("a")), componentMarkup.asPlainString(null), markup);
+    }
+  }
+
+  @Test
+  public void shouldHandOutModifiableCopiesOfCachedResults() {
+    ComponentMarkup componentMarkup = makeMarkup("<red>Hello</red>");
+
+    List<Component> first = componentMarkup.interpret(SlotType.CHAT, null);
+    first.clear();
+
+    assertFalse(componentMarkup.interpret(SlotType.CHAT, null).isEmpty());
+  }
+
+  @Test
+  public void shouldReinterpretInterpolations() {
+    ComponentMarkup componentMarkup = makeMarkup("Hello, {name}!");
+
+    assertFalse(componentMarkup.isEnvironmentIndependent());
+    assertEquals("Hello, a!", componentMarkup.asPlainString(makeEnvironment("a")));
+    assertEquals("Hello, b!", componentMarkup.asPlainString(makeEnvironment("b")));
+    assertNotEquals(
+      componentMarkup.interpret(SlotType.CHAT, makeEnvironment("a")),
+      componentMarkup.interpret(SlotType.CHAT, makeEnvironment("b"))
+    );
+  }
+
+  @Test
+  public void shouldReinterpretDirectives() {
+    ComponentMarkup conditional = makeMarkup("<red *if=\"flag\">Shown</red>");
+
+    assertFalse(conditional.isEnvironmentIndependent());
+    assertEquals("Shown", conditional.asPlainString(new InterpretationEnvironment().withVariable("flag", true)));
+    assertEquals("", conditional.asPlainString(new InterpretationEnvironment().withVariable("flag", false)));
+
+    ComponentMarkup loop = makeMarkup("<red *for-entry=\"entries\">x</red>");
+
+    assertFalse(loop.isEnvironmentIndependent());
+    assertEquals("xx", loop.asPlainString(new InterpretationEnvironment().withVariable("entries", List.of(1, 2))));
+    assertEquals("x", loop.asPlainString(new InterpretationEnvironment().withVariable("entries", List.of(1))));
+  }
+
+  @Test
+  public void shouldNeverCacheMarkupContainingBindingOrAttributeCharacters() {
+    // Conservative by design: these characters disable caching even where they're only part of the text
+    assertFalse(makeMarkup("Mail me @ home").isEnvironmentIndependent());
+    assertFalse(makeMarkup("Press [E] to open").isEnvironmentIndependent());
+    assertFalse(makeMarkup("5 * 5").isEnvironmentIndependent());
+  }
+
+  @Test
+  public void shouldNotCacheWithoutSourceText() {
+    ComponentMarkup componentMarkup = new ComponentMarkup(ComponentMarkup.parse("Hello", nullLogger), new InterpretationEnvironment(), nullLogger);
+    assertFalse(componentMarkup.isEnvironmentIndependent());
+  }
+
+  private ComponentMarkup makeMarkup(String markup) {
+    return new ComponentMarkup(markup, new InterpretationEnvironment(), nullLogger);
+  }
+
+  private InterpretationEnvironment makeEnvironment(String name) {
+    return new InterpretationEnvironment().withVariable("name", name);
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.mapper.ConfigMapper;
+import at.blvckbytes.cm_mapper.mapper.GeneratedSectionMapper;
+import at.blvckbytes.cm_mapper.mapper.processor.ConfigSectionProcessor;
+import at.blvckbytes.cm_mapper.mapper.section.ConfigSection;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigSectionProcessorTests {
+
+  private static final String SECTION_HEADER = String.join("\n",
+    "package generated_sections;",
+    "",
+    "import at.blvckbytes.cm_mapper.mapper.section.ConfigSection;",
+    "import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;",
+    "import at.blvckbytes.component_markup.util.logging.InterpreterLogger;",
+    ""
+  );
+
+  private static final JavaFileObject NESTED_SECTION = JavaFileObjects.forSourceString("generated_sections.NestedSection", SECTION_HEADER + String.join("\n",
+    "public class NestedSection extends ConfigSection {",
+    "  String name;",
+    "  public NestedSection(InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) {",
+    "    super(baseEnvironment, interpreterLogger);",
+    "  }",
+    "}"
+  ));
+
+  private static final JavaFileObject MAPPED_SECTION = JavaFileObjects.forSourceString("generated_sections.MappedSection", SECTION_HEADER + String.join("\n",
+    "public class MappedSection extends ConfigSection {",
+    "  long amount;",
+    "  int count;",
+    "  boolean enabled;",
+    "  double ratio;",
+    "  Long boxedAmount;",
+    "  String text;",
+    "  private long hidden;",
+    "  NestedSection nested;",
+    "  public MappedSection(InterpretationEnvironment baseEnvironment, InterpreterLogger interpreterLogger) {",
+    "    super(baseEnvironment, interpreterLogger);",
+    "  }",
+    "}"
+  ));
+
+  private final TestHelper helper = new TestHelper();
+
+  @Test
+  public void shouldGenerateMappersForAllSections() {
+    Compilation compilation = compileSections();
+
+    assertTrue(compilation.generatedSourceFile("generated_sections.MappedSection" + GeneratedSectionMapper.CLASS_NAME_SUFFIX).isPresent());
+    assertTrue(compilation.generatedSourceFile("generated_sections.NestedSection" + GeneratedSectionMapper.CLASS_NAME_SUFFIX).isPresent());
+  }
+
+  @Test
+  public void shouldDescribeFieldsInDiscoveryOrder() throws Exception {
+    GeneratedSectionMapper<?> mapper = loadMapper(loadSections(compileSections()), "generated_sections.MappedSection");
+    List<GeneratedSectionMapper.FieldDescriptor> fields = mapper.getFields();
+
+    assertEquals(
+      List.of("amount", "count", "enabled", "ratio", "boxedAmount", "text", "hidden", "nested"),
+      fields.subList(0, 8).stream().map(GeneratedSectionMapper.FieldDescriptor::fieldName).toList()
+    );
+
+    // Private fields are not accessible from within the generated mapper and are written reflectively
+    assertTrue(fields.get(0).assignable());
+    assertFalse(fields.get(6).assignable());
+  }
+
+  @Test
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void shouldWidenPrimitivesLikeReflectiveWrites() throws Exception {
+    ClassLoader loader = loadSections(compileSections());
+    GeneratedSectionMapper mapper = loadMapper(loader, "generated_sections.MappedSection");
+    ConfigSection section = instantiate(loader, "generated_sections.MappedSection");
+
+    mapper.assign(section, 0, 5);
+    assertEquals(5L, readField(section, "amount"));
+
+    mapper.assign(section, 0, 5000000000L);
+    assertEquals(5000000000L, readField(section, "amount"));
+
+    mapper.assign(section, 1, 'A');
+    assertEquals(65, readField(section, "count"));
+
+    mapper.assign(section, 3, 2);
+    assertEquals(2D, readField(section, "ratio"));
+
+    mapper.assign(section, 3, 1.5F);
+    assertEquals(1.5D, readField(section, "ratio"));
+
+    mapper.assign(section, 4, 3L);
+    assertEquals(3L, readField(section, "boxedAmount"));
+
+    // Narrowing is rejected, just as reflective writes do
+    assertThrows(IllegalArgumentException.class, () -> mapper.assign(section, 1, 5L));
+    assertThrows(IllegalArgumentException.class, () -> mapper.assign(section, 2, 1));
+
+    // Wrappers are never widened into other wrappers, which reflective writes reject as well
+    assertThrows(RuntimeException.class, () -> mapper.assign(section, 4, 3));
+  }
+
+  @Test
+  public void shouldMapThroughGeneratedMapper() throws Exception {
+    ClassLoader loader = loadSections(compileSections());
+    Class<? extends ConfigSection> sectionType = loader.loadClass("generated_sections.MappedSection").asSubclass(ConfigSection.class);
+
+    ConfigMapper mapper = new ConfigMapper(
+      helper.makeConfig("generated_section.yml"),
+      new InterpretationEnvironment(),
+      (view, position, message, e) -> {},
+      (input, type) -> input
+    );
+
+    ConfigSection section = mapper.mapSection(null, sectionType);
+
+    assertEquals(5000000000L, readField(section, "amount"));
+    // Absent keys leave the field's default untouched
+    assertEquals(0, readField(section, "count"));
+    assertEquals(true, readField(section, "enabled"));
+    assertEquals(.5, readField(section, "ratio"));
+    assertEquals(7000000000L, readField(section, "boxedAmount"));
+    assertEquals("hello", readField(section, "text"));
+    assertEquals(4L, readField(section, "hidden"));
+    assertEquals("inner", readField((ConfigSection) readField(section, "nested"), "name"));
+  }
+
+  private Compilation compileSections() {
+    Compilation compilation = Compiler.javac()
+      .withProcessors(new ConfigSectionProcessor())
+      .compile(NESTED_SECTION, MAPPED_SECTION);
+
+    assertEquals(Compilation.Status.SUCCESS, compilation.status(), () -> compilation.diagnostics().toString());
+    return compilation;
+  }
+
+  /**
+   * Load all classes of a compilation, including the generated mappers, such that they resolve
+   * everything else, e.g. the config-section base-class, through the loader of the tests
+   */
+  private ClassLoader loadSections(Compilation compilation) throws IOException {
+    Map<String, byte[]> bytesByClassName = new HashMap<>();
+
+    for (JavaFileObject file : compilation.generatedFiles()) {
+      if (file.getKind() != JavaFileObject.Kind.CLASS)
+        continue;
+
+      String path = file.toUri().getPath();
+      String className = path.substring(path.indexOf("generated_sections/"), path.length() - ".class".length()).replace('/', '.');
+
+      try (InputStream input = file.openInputStream()) {
+        bytesByClassName.put(className, input.readAllBytes());
+      }
+    }
+
+    return new ClassLoader(getClass().getClassLoader()) {
+      @Override
+      protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = bytesByClassName.get(name);
+
+        if (bytes == null)
+          throw new ClassNotFoundException(name);
+
+        return defineClass(name, bytes, 0, bytes.length);
+      }
+    };
+  }
+
+  private GeneratedSectionMapper<?> loadMapper(ClassLoader loader, String sectionName) throws Exception {
+    Class<?> mapperClass = loader.loadClass(sectionName + GeneratedSectionMapper.CLASS_NAME_SUFFIX);
+    return (GeneratedSectionMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+  }
+
+  private ConfigSection instantiate(ClassLoader loader, String sectionName) throws Exception {
+    return (ConfigSection) loader.loadClass(sectionName)
+      .getConstructor(InterpretationEnvironment.class, InterpreterLogger.class)
+      .newInstance(new InterpretationEnvironment(), (InterpreterLogger) (view, position, message, e) -> {});
+  }
+
+  private Object readField(ConfigSection section, String name) throws Exception {
+    Field field = section.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(section);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileFingerprintTests {
+
+  private static final long MODIFIED_AT = 1_700_000_000_000L;
+
+  @Test
+  public void shouldMatchUntouchedFile() throws Exception {
+    File file = makeFile("a: 1");
+    FileFingerprint fingerprint = FileFingerprint.of(Files.readAllBytes(file.toPath()), file.lastModified());
+
+    assertTrue(fingerprint.matches(file));
+  }
+
+  @Test
+  public void shouldMatchTouchedFileWithSameContents() throws Exception {
+    File file = makeFile("a: 1");
+    FileFingerprint fingerprint = FileFingerprint.of(Files.readAllBytes(file.toPath()), file.lastModified());
+
+    assertTrue(file.setLastModified(MODIFIED_AT + 5000));
+    assertTrue(fingerprint.matches(file));
+  }
+
+  @Test
+  public void shouldTakeFastPathAfterDigestConfirmedTouch() throws Exception {
+    File file = makeFile("a: 1");
+    FileFingerprint fingerprint = FileFingerprint.of(Files.readAllBytes(file.toPath()), file.lastModified());
+
+    assertTrue(file.setLastModified(MODIFIED_AT + 5000));
+    assertTrue(fingerprint.matches(file));
+
+    // Same size and modification-time are trusted without reading, even though the contents differ
+    Files.writeString(file.toPath(), "a: 2");
+    assertTrue(file.setLastModified(MODIFIED_AT + 5000));
+    assertTrue(fingerprint.matches(file));
+  }
+
+  @Test
+  public void shouldNotMatchChangedContentsOfSameSize() throws Exception {
+    File file = makeFile("a: 1");
+    FileFingerprint fingerprint = FileFingerprint.of(Files.readAllBytes(file.toPath()), file.lastModified());
+
+    Files.writeString(file.toPath(), "a: 2");
+    assertTrue(file.setLastModified(MODIFIED_AT + 5000));
+    assertFalse(fingerprint.matches(file));
+  }
+
+  @Test
+  public void shouldNotMatchChangedSize() throws Exception {
+    File file = makeFile("a: 1");
+    FileFingerprint fingerprint = FileFingerprint.of(Files.readAllBytes(file.toPath()), file.lastModified());
+
+    Files.writeString(file.toPath(), "a: 12");
+    assertTrue(file.setLastModified(MODIFIED_AT));
+    assertFalse(fingerprint.matches(file));
+  }
+
+  @Test
+  public void shouldNotMatchDeletedFile() throws Exception {
+    File file = makeFile("a: 1");
+    FileFingerprint fingerprint = FileFingerprint.of(Files.readAllBytes(file.toPath()), file.lastModified());
+
+    assertTrue(file.delete());
+    assertFalse(fingerprint.matches(file));
+  }
+
+  private File makeFile(String contents) throws Exception {
+    File file = Files.createTempFile("fingerprint", ".yml").toFile();
+    file.deleteOnExit();
+
+    Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+    assertTrue(file.setLastModified(MODIFIED_AT));
+
+    return file;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FolderWatcherTests {
+
+  private static final long DEBOUNCE_MILLIS = 300;
+  private static final long TIMEOUT_MILLIS = 10_000;
+
+  private final BlockingQueue<Path> reloadedFiles = new LinkedBlockingQueue<>();
+  private final BlockingQueue<LogRecord> loggedRecords = new LinkedBlockingQueue<>();
+
+  @Test
+  public void shouldReloadOnceAfterBurstOfWrites() throws Exception {
+    Path folder = Files.createTempDirectory("folder-watcher");
+    Path watchedFile = folder.resolve("watched.yml").toAbsolutePath().normalize();
+
+    FolderWatcher watcher = makeWatcher(folder, watchedFile, Runnable::run);
+    watcher.start();
+
+    try {
+      for (int write = 0; write < 3; ++write) {
+        Files.writeString(watchedFile, "a: " + write);
+        Files.writeString(folder.resolve("unwatched.yml"), "a: " + write);
+        Thread.sleep(DEBOUNCE_MILLIS / 6);
+      }
+
+      assertEquals(watchedFile, reloadedFiles.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+      // Neither further reloads of the same burst, nor any of the unwatched file
+      assertNull(reloadedFiles.poll(DEBOUNCE_MILLIS * 3, TimeUnit.MILLISECONDS));
+    } finally {
+      watcher.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepWatchingAfterFailedDispatch() throws Exception {
+    Path folder = Files.createTempDirectory("folder-watcher");
+    Path watchedFile = folder.resolve("watched.yml").toAbsolutePath().normalize();
+
+    // Behaves like the scheduler of a disabled plugin at first, which rejects tasks synchronously
+    AtomicBoolean rejecting = new AtomicBoolean(true);
+    Executor executor = task -> {
+      if (rejecting.get())
+        throw new RejectedExecutionException("Plugin is disabled");
+
+      task.run();
+    };
+
+    FolderWatcher watcher = makeWatcher(folder, watchedFile, executor);
+    watcher.start();
+
+    try {
+      Files.writeString(watchedFile, "a: 1");
+
+      LogRecord record = loggedRecords.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      assertNotNull(record);
+      assertEquals(Level.SEVERE, record.getLevel());
+      assertInstanceOf(RejectedExecutionException.class, record.getThrown());
+      assertTrue(reloadedFiles.isEmpty());
+
+      rejecting.set(false);
+      Files.writeString(watchedFile, "a: 2");
+
+      assertEquals(watchedFile, reloadedFiles.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    } finally {
+      watcher.close();
+    }
+  }
+
+  private FolderWatcher makeWatcher(Path folder, Path watchedFile, Executor executor) throws Exception {
+    Logger logger = Logger.getAnonymousLogger();
+    logger.setUseParentHandlers(false);
+    logger.addHandler(new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        loggedRecords.add(record);
+      }
+
+      @Override
+      public void flush() {}
+
+      @Override
+      public void close() {}
+    });
+
+    return new FolderWatcher(
+      folder, "FolderWatcherTests", DEBOUNCE_MILLIS, watchedFile::equals,
+      filePath -> executor.execute(() -> reloadedFiles.add(filePath)), logger
+    );
+  }
+}
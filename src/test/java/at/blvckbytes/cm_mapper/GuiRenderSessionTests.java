@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.section.gui.GuiRenderSession;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuiRenderSessionTests {
+
+  @BeforeAll
+  public static void setUp() {
+    MockBukkit.mock();
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  @Test
+  public void shouldSkipEqualItems() {
+    GuiRenderSession session = new GuiRenderSession(Bukkit.createInventory(null, 9));
+
+    assertTrue(session.setItem(0, new ItemStack(Material.STONE)));
+    assertFalse(session.setItem(0, new ItemStack(Material.STONE)));
+    assertTrue(session.setItem(0, new ItemStack(Material.DIRT)));
+    assertEquals(new ItemStack(Material.DIRT), session.getInventory().getItem(0));
+
+    // Unknown slots are always written, even when clearing them
+    assertTrue(session.setItem(1, null));
+    assertFalse(session.setItem(1, null));
+    assertTrue(session.setItem(0, null));
+    assertNull(session.getInventory().getItem(0));
+  }
+
+  @Test
+  public void shouldNoticeModificationsOfWrittenItems() {
+    GuiRenderSession session = new GuiRenderSession(Bukkit.createInventory(null, 9));
+    ItemStack item = new ItemStack(Material.STONE);
+
+    assertTrue(session.setItem(0, item));
+
+    item.setAmount(5);
+    assertTrue(session.setItem(0, item));
+    assertEquals(5, session.getInventory().getItem(0).getAmount());
+  }
+
+  @Test
+  public void shouldWriteInvalidatedSlots() {
+    Inventory inventory = Bukkit.createInventory(null, 9);
+    GuiRenderSession session = new GuiRenderSession(inventory);
+
+    session.setItem(0, new ItemStack(Material.STONE));
+    session.setItem(1, new ItemStack(Material.STONE));
+
+    // Modified without going through the session, which thereby goes unnoticed
+    inventory.setItem(0, new ItemStack(Material.DIRT));
+    inventory.setItem(1, new ItemStack(Material.DIRT));
+    assertFalse(session.setItem(0, new ItemStack(Material.STONE)));
+    assertEquals(Material.DIRT, inventory.getItem(0).getType());
+
+    session.invalidate(0);
+    assertTrue(session.setItem(0, new ItemStack(Material.STONE)));
+    assertEquals(Material.STONE, inventory.getItem(0).getType());
+    assertFalse(session.setItem(1, new ItemStack(Material.STONE)));
+
+    session.invalidateAll();
+    assertTrue(session.setItem(0, new ItemStack(Material.STONE)));
+    assertTrue(session.setItem(1, new ItemStack(Material.STONE)));
+    assertEquals(Material.STONE, inventory.getItem(1).getType());
+  }
+
+  @Test
+  public void shouldDropWritesOfSupersededRenders() {
+    GuiRenderSession session = new GuiRenderSession(Bukkit.createInventory(null, 9));
+
+    long firstRender = session.beginRender();
+    long secondRender = session.beginRender();
+
+    assertTrue(session.setItem(0, new ItemStack(Material.STONE), secondRender));
+    assertFalse(session.setItem(0, new ItemStack(Material.DIRT), firstRender));
+    assertEquals(Material.STONE, session.getInventory().getItem(0).getType());
+
+    // Slots which the later render did not write to are still written
+    assertTrue(session.setItem(1, new ItemStack(Material.DIRT), firstRender));
+    assertTrue(session.setItem(1, new ItemStack(Material.STONE), secondRender));
+
+    // Writes outside a render supersede all renders begun before them
+    assertTrue(session.setItem(0, null));
+    assertFalse(session.setItem(0, new ItemStack(Material.DIRT), secondRender));
+    assertNull(session.getInventory().getItem(0));
+  }
+
+  @Test
+  public void shouldIgnoreOutOfRangeSlots() {
+    GuiRenderSession session = new GuiRenderSession(Bukkit.createInventory(null, 9));
+
+    assertFalse(session.setItem(-1, new ItemStack(Material.STONE)));
+    assertFalse(session.setItem(9, new ItemStack(Material.STONE)));
+
+    assertDoesNotThrow(() -> session.invalidate(-1));
+    assertDoesNotThrow(() -> session.invalidate(9));
+    assertTrue(session.setItem(8, new ItemStack(Material.STONE)));
+  }
+}
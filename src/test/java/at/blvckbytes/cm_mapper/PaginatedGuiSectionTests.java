@@ -0,0 +1,295 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.section.gui.GuiRenderSession;
+import at.blvckbytes.cm_mapper.sections.PaginatedUiSection;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaginatedGuiSectionTests {
+
+  private static final List<Integer> ENTRIES = List.of(1, 2, 3, 4, 5, 6);
+
+  private final TestHelper helper = new TestHelper();
+  private final List<Integer> builtEntries = new ArrayList<>();
+
+  @BeforeAll
+  public static void setUp() {
+    MockBukkit.mock();
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  @Test
+  public void shouldCountPages() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+
+    assertArrayEquals(new int[] { 0, 1, 2, 4 }, section.getPaginationSlotArray());
+    assertEquals(4, section.getPageSize());
+
+    assertEquals(1, section.getPageCount(-1));
+    assertEquals(1, section.getPageCount(0));
+    assertEquals(1, section.getPageCount(1));
+    assertEquals(1, section.getPageCount(4));
+    assertEquals(2, section.getPageCount(5));
+    assertEquals(2, section.getPageCount(8));
+    assertEquals(3, section.getPageCount(9));
+  }
+
+  @Test
+  public void shouldVisitNothingOfEmptyEntries() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    List<String> visits = new ArrayList<>();
+
+    assertEquals(0, section.forEachOnPage(0, List.<Integer>of(), recordVisit(visits)));
+    assertEquals(0, section.forEachOnPage(0, Stream.<Integer>empty(), recordVisit(visits)));
+    assertEquals(List.of(), visits);
+  }
+
+  @Test
+  public void shouldVisitPartialLastPage() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+
+    List<String> listVisits = new ArrayList<>();
+    assertEquals(2, section.forEachOnPage(1, ENTRIES, recordVisit(listVisits)));
+    assertEquals(List.of("5@0", "6@1"), listVisits);
+
+    List<String> streamVisits = new ArrayList<>();
+    assertEquals(2, section.forEachOnPage(1, ENTRIES.stream(), recordVisit(streamVisits)));
+    assertEquals(listVisits, streamVisits);
+
+    List<String> fullVisits = new ArrayList<>();
+    assertEquals(4, section.forEachOnPage(0, ENTRIES, recordVisit(fullVisits)));
+    assertEquals(List.of("1@0", "2@1", "3@2", "4@4"), fullVisits);
+  }
+
+  @Test
+  public void shouldVisitNothingPastLastPage() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    List<String> visits = new ArrayList<>();
+
+    assertEquals(0, section.forEachOnPage(2, ENTRIES, recordVisit(visits)));
+    assertEquals(0, section.forEachOnPage(Integer.MAX_VALUE, ENTRIES, recordVisit(visits)));
+    assertEquals(0, section.forEachOnPage(2, ENTRIES.stream(), recordVisit(visits)));
+    assertEquals(List.of(), visits);
+
+    assertThrows(IllegalArgumentException.class, () -> section.forEachOnPage(-1, ENTRIES, recordVisit(visits)));
+    assertThrows(IllegalArgumentException.class, () -> section.forEachOnPage(-1, ENTRIES.stream(), recordVisit(visits)));
+  }
+
+  @Test
+  public void shouldHandleZeroPaginationSlots() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section_no_slots.yml");
+    List<String> visits = new ArrayList<>();
+
+    assertEquals(0, section.getPageSize());
+    assertEquals(0, section.getPaginationSlotArray().length);
+    assertEquals(1, section.getPageCount(0));
+    assertEquals(1, section.getPageCount(ENTRIES.size()));
+
+    assertEquals(0, section.forEachOnPage(0, ENTRIES, recordVisit(visits)));
+    assertEquals(0, section.forEachOnPage(3, ENTRIES, recordVisit(visits)));
+    assertEquals(0, section.forEachOnPage(0, ENTRIES.stream(), recordVisit(visits)));
+    assertEquals(List.of(), visits);
+
+    section.renderPage(section.createRenderSession(new InterpretationEnvironment()), 0, ENTRIES, itemBuilder());
+    assertEquals(List.of(), builtEntries);
+  }
+
+  @Test
+  public void shouldRenderEntriesOfPage() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    GuiRenderSession session = section.createRenderSession(new InterpretationEnvironment());
+    Inventory inventory = session.getInventory();
+
+    section.renderPage(session, 0, ENTRIES, itemBuilder());
+
+    assertEquals(List.of(1, 2, 3, 4), builtEntries);
+    assertAmounts(inventory, 1, 2, 3, null, 4);
+
+    // Item-sections are rendered separately
+    assertNull(inventory.getItem(9));
+    assertNull(inventory.getItem(17));
+  }
+
+  @Test
+  public void shouldClearSlotsWithoutEntries() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    GuiRenderSession session = section.createRenderSession(new InterpretationEnvironment());
+
+    section.renderPage(session, 0, ENTRIES, itemBuilder());
+    section.renderPage(session, 1, ENTRIES, itemBuilder());
+    assertAmounts(session.getInventory(), 5, 6, null, null, null);
+
+    section.renderPage(session, 0, ENTRIES.stream(), itemBuilder());
+    section.renderPage(session, 2, ENTRIES.stream(), itemBuilder());
+    assertAmounts(session.getInventory(), null, null, null, null, null);
+
+    // Only entries within the window of each page are built
+    assertEquals(List.of(1, 2, 3, 4, 5, 6, 1, 2, 3, 4), builtEntries);
+  }
+
+  @Test
+  public void shouldPlaceAsyncPagesInOrderOfRequest() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    GuiRenderSession session = section.createRenderSession(new InterpretationEnvironment());
+    List<Runnable> workerTasks = new ArrayList<>();
+    List<Runnable> mainThreadTasks = new ArrayList<>();
+
+    CompletableFuture<Void> firstPage = section.renderPageAsync(session, 0, ENTRIES, itemBuilder(), workerTasks::add, mainThreadTasks::add);
+    CompletableFuture<Void> secondPage = section.renderPageAsync(session, 1, ENTRIES, itemBuilder(), workerTasks::add, mainThreadTasks::add);
+
+    runAll(workerTasks);
+    runAll(mainThreadTasks);
+
+    assertTrue(firstPage.isDone() && !firstPage.isCompletedExceptionally());
+    assertTrue(secondPage.isDone() && !secondPage.isCompletedExceptionally());
+    assertAmounts(session.getInventory(), 5, 6, null, null, null);
+  }
+
+  @Test
+  public void shouldDropSupersededAsyncPages() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    GuiRenderSession session = section.createRenderSession(new InterpretationEnvironment());
+    List<Runnable> workerTasks = new ArrayList<>();
+    List<Runnable> mainThreadTasks = new ArrayList<>();
+
+    CompletableFuture<Void> firstPage = section.renderPageAsync(session, 0, ENTRIES, itemBuilder(), workerTasks::add, mainThreadTasks::add);
+    CompletableFuture<Void> secondPage = section.renderPageAsync(session, 1, ENTRIES, itemBuilder(), workerTasks::add, mainThreadTasks::add);
+
+    // The four builds of the first page are queued before the two builds of the second page
+    List<Runnable> firstPageBuilds = new ArrayList<>(workerTasks.subList(0, 4));
+    List<Runnable> secondPageBuilds = new ArrayList<>(workerTasks.subList(4, 6));
+    workerTasks.clear();
+
+    runAll(secondPageBuilds);
+    runAll(mainThreadTasks);
+    assertTrue(secondPage.isDone());
+    assertAmounts(session.getInventory(), 5, 6, null, null, null);
+
+    // The first page finishes building last, but has been requested first, and is thus dropped
+    runAll(firstPageBuilds);
+    runAll(mainThreadTasks);
+    assertTrue(firstPage.isDone() && !firstPage.isCompletedExceptionally());
+    assertAmounts(session.getInventory(), 5, 6, null, null, null);
+  }
+
+  @Test
+  public void shouldDropAsyncItemSectionsSupersededByLaterWrites() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    GuiRenderSession session = section.createRenderSession(new InterpretationEnvironment());
+    List<Runnable> workerTasks = new ArrayList<>();
+    List<Runnable> mainThreadTasks = new ArrayList<>();
+
+    CompletableFuture<Void> render = section.renderAllAsync(session, new InterpretationEnvironment(), workerTasks::add, mainThreadTasks::add);
+
+    session.setItem(9, new ItemStack(Material.STONE));
+
+    runAll(workerTasks);
+    runAll(mainThreadTasks);
+
+    assertTrue(render.isDone() && !render.isCompletedExceptionally());
+    assertEquals(Material.STONE, session.getInventory().getItem(9).getType());
+    assertEquals(Material.ARROW, session.getInventory().getItem(17).getType());
+  }
+
+  @Test
+  public void shouldPlaceNothingIfSingleBuildFails() throws Exception {
+    PaginatedUiSection section = makeSection("paginated_ui_section.yml");
+    GuiRenderSession session = section.createRenderSession(new InterpretationEnvironment());
+
+    section.renderPage(session, 0, ENTRIES, itemBuilder());
+
+    CompletableFuture<Void> render = section.renderPageAsync(session, 1, ENTRIES, entry -> {
+      if (entry == 6)
+        throw new IllegalStateException("Could not build entry " + entry);
+
+      return new ItemStack(Material.STONE, entry);
+    }, Runnable::run, Runnable::run);
+
+    assertTrue(render.isCompletedExceptionally());
+
+    CompletionException exception = assertThrows(CompletionException.class, render::join);
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+
+    // The previous page remains, instead of a partially rendered one
+    assertAmounts(session.getInventory(), 1, 2, 3, null, 4);
+  }
+
+  private ObjIntConsumer<Integer> recordVisit(List<String> visits) {
+    return (entry, slot) -> visits.add(entry + "@" + slot);
+  }
+
+  private void runAll(List<Runnable> tasks) {
+    while (!tasks.isEmpty())
+      tasks.remove(0).run();
+  }
+
+  private Function<Integer, ItemStack> itemBuilder() {
+    return entry -> {
+      builtEntries.add(entry);
+      return new ItemStack(Material.STONE, entry);
+    };
+  }
+
+  private void assertAmounts(Inventory inventory, @Nullable Integer... amounts) {
+    for (int slot = 0; slot < amounts.length; ++slot) {
+      ItemStack item = inventory.getItem(slot);
+
+      if (amounts[slot] == null) {
+        assertTrue(item == null || item.getType().isAir(), "Expected slot " + slot + " to be empty");
+        continue;
+      }
+
+      assertNotNull(item, "Expected slot " + slot + " to be occupied");
+      assertEquals(amounts[slot], item.getAmount());
+    }
+  }
+
+  private PaginatedUiSection makeSection(String fileName) throws Exception {
+    return helper.makeComponentMapper(fileName).mapSection(null, PaginatedUiSection.class);
+  }
+}
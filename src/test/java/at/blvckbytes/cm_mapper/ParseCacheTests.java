@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.cm.ParseCache;
+import at.blvckbytes.component_markup.expression.ast.ExpressionNode;
+import at.blvckbytes.component_markup.markup.ast.node.MarkupNode;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParseCacheTests {
+
+  private final InterpreterLogger nullLogger = (view, position, message, e) -> {};
+
+  @Test
+  public void shouldShareNodesOfIdenticalText() {
+    ParseCache cache = new ParseCache();
+
+    assertSame(cache.parseMarkup("hello", nullLogger), cache.parseMarkup("hello", nullLogger));
+    assertNotSame(cache.parseMarkup("hello", nullLogger), cache.parseMarkup("world", nullLogger));
+    assertSame(cache.parseExpression("1 + 2", nullLogger), cache.parseExpression("1 + 2", nullLogger));
+  }
+
+  @Test
+  public void shouldKeepNodesUsedDuringPreviousGeneration() {
+    ParseCache cache = new ParseCache();
+    MarkupNode markupNode = cache.parseMarkup("hello", nullLogger);
+    ExpressionNode expressionNode = cache.parseExpression("1 + 2", nullLogger);
+
+    cache.nextGeneration();
+    assertSame(markupNode, cache.parseMarkup("hello", nullLogger));
+
+    cache.nextGeneration();
+    assertSame(markupNode, cache.parseMarkup("hello", nullLogger));
+
+    // Unused throughout the previous generation, and thus evicted
+    assertNotSame(expressionNode, cache.parseExpression("1 + 2", nullLogger));
+  }
+
+  @Test
+  public void shouldEvictNodesUnusedForAWholeGeneration() {
+    ParseCache cache = new ParseCache();
+    MarkupNode markupNode = cache.parseMarkup("hello", nullLogger);
+
+    // Starting generation 2 evicts the node, as it has not been used throughout generation 1
+    cache.nextGeneration();
+    cache.nextGeneration();
+
+    assertNotSame(markupNode, cache.parseMarkup("hello", nullLogger));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper;
+
+import at.blvckbytes.cm_mapper.cm.SlotSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlotSetTests {
+
+  @Test
+  public void shouldFindFirstAndLastSlot() {
+    assertEquals(-1, SlotSet.EMPTY.first());
+    assertEquals(-1, SlotSet.EMPTY.last());
+
+    SlotSet slots = SlotSet.of(5, 9, 40);
+    assertEquals(5, slots.first());
+    assertEquals(40, slots.last());
+  }
+
+  @Test
+  public void shouldFindNextSlot() {
+    SlotSet slots = SlotSet.of(5, 9, 40);
+
+    assertEquals(5, slots.next(-3));
+    assertEquals(5, slots.next(0));
+    assertEquals(5, slots.next(5));
+    assertEquals(9, slots.next(6));
+    assertEquals(40, slots.next(10));
+    assertEquals(-1, slots.next(41));
+    assertEquals(-1, slots.next(SlotSet.MAX_SLOT + 1));
+    assertEquals(-1, SlotSet.EMPTY.next(0));
+  }
+
+  @Test
+  public void shouldHandleBoundarySlots() {
+    SlotSet slots = SlotSet.of(0, SlotSet.MAX_SLOT);
+
+    assertEquals(2, slots.size());
+    assertTrue(slots.contains(0));
+    assertTrue(slots.contains(63));
+    assertFalse(slots.contains(-1));
+    assertFalse(slots.contains(64));
+
+    assertEquals(0, slots.first());
+    assertEquals(63, slots.last());
+    assertEquals(0, slots.next(0));
+    assertEquals(63, slots.next(1));
+    assertEquals(63, slots.next(63));
+
+    // Slot 63 occupies the sign-bit
+    assertEquals(Long.MIN_VALUE | 1L, slots.toBits());
+    assertEquals(Set.of(0, 63), slots.toSet());
+  }
+
+  @Test
+  public void shouldRejectOutOfRangeSlots() {
+    assertThrows(IllegalArgumentException.class, () -> SlotSet.of(-1));
+    assertThrows(IllegalArgumentException.class, () -> SlotSet.of(3, SlotSet.MAX_SLOT + 1));
+  }
+
+  @Test
+  public void shouldIntersectSets() {
+    SlotSet left = SlotSet.of(0, 4, 8, 63);
+    SlotSet right = SlotSet.of(4, 5, 63);
+
+    assertTrue(left.intersects(right));
+    assertEquals(SlotSet.of(4, 63), left.intersection(right));
+    assertEquals(SlotSet.of(0, 4, 5, 8, 63), left.union(right));
+
+    SlotSet disjoint = SlotSet.of(1, 2);
+    assertFalse(left.intersects(disjoint));
+    assertSame(SlotSet.EMPTY, left.intersection(disjoint));
+    assertFalse(SlotSet.EMPTY.intersects(SlotSet.EMPTY));
+  }
+
+  @Test
+  public void shouldIterateSlotsInAscendingOrder() {
+    List<Integer> visitedSlots = new ArrayList<>();
+    SlotSet.of(63, 17, 0, 2).forEachSlot(visitedSlots::add);
+
+    assertEquals(List.of(0, 2, 17, 63), visitedSlots);
+    assertEquals(List.of(0, 2, 17, 63), new ArrayList<>(SlotSet.of(63, 17, 0, 2).toSet()));
+  }
+
+  @Test
+  public void shouldCompareByContainedSlots() {
+    assertEquals(SlotSet.of(1, 2), SlotSet.of(2, 1, 2));
+    assertEquals(SlotSet.of(1, 2).hashCode(), SlotSet.of(2, 1).hashCode());
+    assertNotEquals(SlotSet.of(1, 2), SlotSet.of(1));
+    assertSame(SlotSet.EMPTY, SlotSet.of());
+  }
+}
@@ -24,6 +24,8 @@
 
 package at.blvckbytes.cm_mapper;
 
+import at.blvckbytes.cm_mapper.cm.ComponentExpression;
+import at.blvckbytes.cm_mapper.cm.ComponentMarkup;
 import at.blvckbytes.cm_mapper.mapper.ConfigMapper;
 import at.blvckbytes.cm_mapper.mapper.IConfigMapper;
 import at.blvckbytes.cm_mapper.mapper.ValueConverter;
@@ -83,6 +85,24 @@ public class TestHelper {
     return new ConfigMapper(config, emptyEnvironment, nullLogger, valueConverter);
   }
 
+  /**
+   * Create a new config instance on the provided path and then create a new mapper instance on top
+   * of that configuration instance, which converts values to markups and expressions
+   * @param fileName Input file within the resources folder
+   * @return Mapper instance, operating on the configuration instance
+   */
+  public IConfigMapper makeComponentMapper(String fileName) throws FileNotFoundException {
+    return makeMapper(fileName, (input, type) -> {
+      if (type == ComponentMarkup.class)
+        return new ComponentMarkup(String.valueOf(input), emptyEnvironment, nullLogger);
+
+      if (type == ComponentExpression.class)
+        return new ComponentExpression(String.valueOf(input), emptyEnvironment, nullLogger);
+
+      return input;
+    });
+  }
+
   /**
    * Assert that the provided yaml config saves without throwing and that the saved
    * lines equal to the line contents of the provided comparison file
@@ -24,6 +24,7 @@
 
 package at.blvckbytes.cm_mapper;
 
+import at.blvckbytes.cm_mapper.mapper.ConfigPath;
 import at.blvckbytes.cm_mapper.mapper.YamlConfig;
 import org.junit.jupiter.api.Test;
 
@@ -78,6 +79,29 @@ public class YamlConfigReadTests {
     assertFalse(config.exists("b"));
   }
 
+  @Test
+  public void shouldLookUpPreSplitPaths() throws FileNotFoundException {
+    YamlConfig config = helper.makeConfig("mappings.yml");
+    assertEquals(config.get("b.d.e"), config.getAt(ConfigPath.of("b.d.e")));
+    assertEquals(config.get("b.d.e"), config.getAt(ConfigPath.of("b").resolve("d").resolve("e")));
+    assertEquals(config.get("g"), config.getAt(ConfigPath.of("g.h").parent()));
+    assertTrue(config.existsAt(ConfigPath.of(" a.b ")));
+    assertFalse(config.existsAt(ConfigPath.of("a.x")));
+  }
+
+  @Test
+  public void shouldInternPaths() {
+    ConfigPath path = ConfigPath.of("a.b.c");
+    assertSame(path, ConfigPath.of("a.b.c"));
+    assertSame(path, ConfigPath.of("a").resolve("b.c"));
+    assertSame(path, ConfigPath.of("a.b.").resolve(".c"));
+    assertSame(ConfigPath.of("a.b"), path.parent());
+    assertEquals(3, path.length());
+    assertEquals("c", path.lastSegment());
+    assertNull(ConfigPath.of("a").parent());
+    assertNull(ConfigPath.resolve(null, " "));
+  }
+
   @Test
   public void shouldReadComments() throws FileNotFoundException {
     YamlConfig config = helper.makeConfig("comments.yml");
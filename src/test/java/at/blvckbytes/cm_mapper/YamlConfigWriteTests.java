@@ -26,10 +26,15 @@ package at.blvckbytes.cm_mapper;
 
 import at.blvckbytes.cm_mapper.mapper.YamlConfig;
 import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.nodes.MappingNode;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class YamlConfigWriteTests {
 
@@ -101,6 +106,123 @@ public class YamlConfigWriteTests {
     helper.assertThrowsWithMsg(IllegalArgumentException.class, () -> config.set("test", config), "Cannot store a value of type " + YamlConfig.class);
   }
 
+  @Test
+  public void shouldKeepCaseInsensitiveLookupsUpToDate() throws Exception {
+    YamlConfig config = helper.makeConfig("mappings.yml");
+    assertEquals("first", config.get("A.B"));
+
+    config.set("a.NEW", 5);
+    assertEquals(5L, config.get("A.new"));
+
+    config.remove("A.b");
+    assertFalse(config.exists("a.b"));
+    assertEquals("second", config.get("a.C"));
+
+    config.set("B.D", "replaced");
+    assertEquals("replaced", config.get("b.d"));
+    assertNull(config.get("b.d.e"));
+
+    config.set("x.y.z.LAST.deep", true);
+    assertEquals(true, config.get("X.Y.Z.last.DEEP"));
+
+    config.remove("X");
+    assertFalse(config.exists("x.y"));
+  }
+
+  @Test
+  public void shouldLeavePreviousTreeUntouched() throws Exception {
+    YamlConfig config = helper.makeConfig("mappings.yml");
+    MappingNode previousRoot = config.getRootNode();
+    int previousSize = previousRoot.getValue().size();
+
+    config.set("a.new1", helper.map("hello", "world"));
+    config.remove("x");
+    config.attachComment("b", Collections.singletonList(" Comment above b"), true);
+
+    assertNotSame(previousRoot, config.getRootNode());
+    assertEquals(previousSize, previousRoot.getValue().size());
+    assertEquals(helper.map("hello", "world"), config.get("a.new1"));
+    assertFalse(config.exists("x"));
+  }
+
+  @Test
+  public void shouldNeverExposeHalfAppliedTreesToReaders() throws Exception {
+    YamlConfig config = new YamlConfig();
+    config.load(new StringReader("a:\n  x: 0\n  y: 0\n"));
+
+    AtomicBoolean writing = new AtomicBoolean(true);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> readers = new ArrayList<>();
+
+    for (int readerIndex = 0; readerIndex < 4; ++readerIndex) {
+      Thread reader = new Thread(() -> {
+        try {
+          while (writing.get() && failure.get() == null) {
+            Object pair = config.get("A");
+            assertInstanceOf(Map.class, pair);
+
+            Object x = ((Map<?, ?>) pair).get("x");
+            assertNotNull(x);
+            assertEquals(x, ((Map<?, ?>) pair).get("y"));
+
+            assertTrue(config.exists("a.X"));
+            assertNotNull(config.get("a.Y"));
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+
+      readers.add(reader);
+      reader.start();
+    }
+
+    Thread writer = new Thread(() -> {
+      try {
+        for (long value = 1; value <= 2000 && failure.get() == null; ++value) {
+          switch ((int) (value % 3)) {
+            case 0 -> config.set("a", helper.map("x", value, "y", value));
+            case 1 -> config.load(new StringReader("a:\n  x: " + value + "\n  y: " + value + "\n"));
+            default -> config.set("b.c", value);
+          }
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        writing.set(false);
+      }
+    });
+
+    writer.start();
+    writer.join();
+
+    for (Thread reader : readers)
+      reader.join();
+
+    if (failure.get() != null)
+      fail("Observed a half-applied tree", failure.get());
+  }
+
+  @Test
+  public void shouldNotPersistMergedKeysAfterWrite() throws Exception {
+    YamlConfig config = helper.makeConfig("merge_key_shallow.yml");
+    config.set("d.e", 13);
+    assertEquals(5L, config.get("d.b"));
+
+    StringWriter writer = new StringWriter();
+    config.save(writer);
+
+    String saved = writer.toString();
+    assertEquals(saved.indexOf("b: 5"), saved.lastIndexOf("b: 5"));
+
+    YamlConfig reloaded = new YamlConfig();
+    reloaded.load(new StringReader(saved));
+    assertEquals(13L, reloaded.get("d.e"));
+    assertEquals(5L, reloaded.get("d.b"));
+    assertEquals(21L, reloaded.get("d.g"));
+    assertFalse(reloaded.exists("a.e"));
+  }
+
   @Test
   public void shouldWriteEmptyFileIfRootReset() throws Exception {
     YamlConfig config = helper.makeConfig("mappings.yml");
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.cm;
+
+import at.blvckbytes.component_markup.constructor.SlotType;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentRenderCacheTests {
+
+  private final InterpreterLogger nullLogger = (view, position, message, e) -> {};
+  private final ComponentMarkup markup = new ComponentMarkup("{name}", new InterpretationEnvironment(), nullLogger);
+
+  private long generation;
+  private long nanos;
+
+  @Test
+  public void shouldServeCachedComponentsForEqualKeys() {
+    ComponentRenderCache cache = makeCache(16, 1000);
+
+    assertEquals(expected("a"), render(cache, "a", "key"));
+
+    // The environment differs, but the key claims that the result is the same
+    assertEquals(expected("a"), render(cache, "b", "key"));
+    assertEquals(expected("b"), render(cache, "b", "other-key"));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntries() {
+    ComponentRenderCache cache = makeCache(2, 1000);
+
+    render(cache, "a", "first");
+    render(cache, "a", "second");
+    render(cache, "b", "first");
+    render(cache, "a", "third");
+
+    assertEquals(2, cache.size());
+    assertEquals(expected("a"), render(cache, "b", "first"));
+    assertEquals(expected("b"), render(cache, "b", "second"));
+  }
+
+  @Test
+  public void shouldExpireEntriesAfterTtl() {
+    ComponentRenderCache cache = makeCache(16, 1000);
+
+    render(cache, "a", "key");
+
+    nanos += TimeUnit.MILLISECONDS.toNanos(999);
+    assertEquals(expected("a"), render(cache, "b", "key"));
+
+    nanos += TimeUnit.MILLISECONDS.toNanos(1);
+    assertEquals(expected("b"), render(cache, "b", "key"));
+  }
+
+  @Test
+  public void shouldInvalidateOnNewGeneration() {
+    ComponentRenderCache cache = makeCache(16, 1000);
+
+    render(cache, "a", "first");
+    render(cache, "a", "second");
+
+    ++generation;
+
+    assertEquals(expected("b"), render(cache, "b", "first"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void shouldInvalidateAll() {
+    ComponentRenderCache cache = makeCache(16, 1000);
+
+    render(cache, "a", "key");
+    cache.invalidateAll();
+
+    assertEquals(0, cache.size());
+    assertEquals(expected("b"), render(cache, "b", "key"));
+  }
+
+  private ComponentRenderCache makeCache(int maxSize, long ttlMillis) {
+    return new ComponentRenderCache(() -> generation, maxSize, ttlMillis, () -> nanos);
+  }
+
+  private List<Component> render(ComponentRenderCache cache, String name, Object key) {
+    return cache.interpret(markup, SlotType.CHAT, new InterpretationEnvironment().withVariable("name", name), key);
+  }
+
+  private List<Component> expected(String name) {
+    return markup.interpret(SlotType.CHAT, new InterpretationEnvironment().withVariable("name", name));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.cm;
+
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import at.blvckbytes.component_markup.util.logging.InterpreterLogger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnvironmentsTests {
+
+  private static class CopyCountingEnvironment extends InterpretationEnvironment {
+
+    int copies;
+
+    @Override
+    public InterpretationEnvironment copy() {
+      ++copies;
+      return super.copy();
+    }
+  }
+
+  private final InterpreterLogger nullLogger = (view, position, message, e) -> {};
+
+  @Test
+  public void shouldNotCopyWithoutCallerEnvironment() {
+    InterpretationEnvironment baseEnvironment = new InterpretationEnvironment();
+
+    assertSame(baseEnvironment, Environments.resolve(null, baseEnvironment));
+  }
+
+  @Test
+  public void shouldNotCopyBaseEnvironment() {
+    CopyCountingEnvironment baseEnvironment = new CopyCountingEnvironment();
+
+    assertSame(baseEnvironment, Environments.resolve(baseEnvironment, baseEnvironment));
+    assertEquals(0, baseEnvironment.copies);
+  }
+
+  @Test
+  public void shouldCopyCallerEnvironmentOnce() {
+    InterpretationEnvironment baseEnvironment = new InterpretationEnvironment().withVariable("a", 1);
+    CopyCountingEnvironment environment = new CopyCountingEnvironment();
+    environment.withVariable("b", 2);
+
+    InterpretationEnvironment result = Environments.resolve(environment, baseEnvironment);
+
+    assertNotSame(environment, result);
+    assertNotSame(baseEnvironment, result);
+    assertEquals(1, environment.copies);
+
+    ComponentExpression expression = new ComponentExpression("a + b", baseEnvironment, nullLogger);
+    assertEquals(3L, ((Number) expression.interpret(result)).longValue());
+
+    // The caller's environment does not inherit anything itself
+    assertNull(new ComponentExpression("a", new InterpretationEnvironment(), nullLogger).interpret(environment));
+  }
+
+  @Test
+  public void shouldCopyOncePerConversion() {
+    InterpretationEnvironment baseEnvironment = new InterpretationEnvironment().withVariable("a", 1);
+    ComponentExpression expression = new ComponentExpression("a + b", baseEnvironment, nullLogger);
+
+    CopyCountingEnvironment environment = new CopyCountingEnvironment();
+    environment.withVariable("b", 2);
+
+    assertEquals(3, ComponentExpression.asInt(expression, environment));
+    assertEquals(1, environment.copies);
+
+    assertEquals(3.0, ComponentExpression.asDouble(expression, environment));
+    assertEquals(2, environment.copies);
+
+    assertEquals(1, ComponentExpression.asInt(new ComponentExpression("a", baseEnvironment, nullLogger), baseEnvironment));
+    assertEquals(2, environment.copies);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.section.item;
+
+import at.blvckbytes.cm_mapper.TestHelper;
+import at.blvckbytes.component_markup.expression.interpreter.InterpretationEnvironment;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemStackSectionTests {
+
+  private final TestHelper helper = new TestHelper();
+
+  @BeforeAll
+  public static void setUp() {
+    MockBukkit.mock();
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  @Test
+  public void shouldReuseStaticTemplate() throws Exception {
+    ItemStackSection section = makeSection();
+
+    assertFalse(section.isStatic());
+
+    ItemStack template = section.getTemplate();
+    assertEquals(Material.DIAMOND, template.getType());
+    assertEquals("Static name", plainText(template.getItemMeta().displayName()));
+
+    // Dynamic fields are never applied to the template, where amounts, being expressions, always count as dynamic
+    assertNull(template.getItemMeta().lore());
+    assertEquals(1, template.getAmount());
+
+    ItemStack item = section.build(makeEnvironment("a"));
+
+    assertSame(template, section.getTemplate());
+    assertNotSame(template, item);
+    assertEquals(Material.DIAMOND, item.getType());
+    assertEquals(3, item.getAmount());
+    assertEquals("Static name", plainText(item.getItemMeta().displayName()));
+  }
+
+  @Test
+  public void shouldNotShareMetaBetweenClones() throws Exception {
+    ItemStackSection section = makeSection();
+
+    ItemStack first = section.build(makeEnvironment("a"));
+    ItemStack second = section.build(makeEnvironment("b"));
+
+    // Lore is appended to existing lines, which would accumulate if the meta were shared
+    assertEquals(List.of("Owner: a"), plainLore(first));
+    assertEquals(List.of("Owner: b"), plainLore(second));
+    assertNull(section.getTemplate().getItemMeta().lore());
+
+    var meta = first.getItemMeta();
+    meta.displayName(Component.text("Modified"));
+    first.setItemMeta(meta);
+    first.setAmount(1);
+
+    ItemStack third = section.build(makeEnvironment("c"));
+
+    assertEquals("Static name", plainText(third.getItemMeta().displayName()));
+    assertEquals(3, third.getAmount());
+    assertEquals("Static name", plainText(section.getTemplate().getItemMeta().displayName()));
+    assertEquals(List.of("Owner: b"), plainLore(second));
+  }
+
+  private ItemStackSection makeSection() throws Exception {
+    return helper.makeComponentMapper("item_stack_section.yml").mapSection(null, ItemStackSection.class);
+  }
+
+  private InterpretationEnvironment makeEnvironment(String owner) {
+    return new InterpretationEnvironment().withVariable("owner", owner);
+  }
+
+  private List<String> plainLore(ItemStack item) {
+    var lore = item.getItemMeta().lore();
+    assertNotNull(lore);
+    return lore.stream().map(this::plainText).toList();
+  }
+
+  private String plainText(Component component) {
+    return PlainTextComponentSerializer.plainText().serialize(component);
+  }
+}
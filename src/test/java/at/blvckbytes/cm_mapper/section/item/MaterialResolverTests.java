@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package at.blvckbytes.cm_mapper.section.item;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MaterialResolverTests {
+
+  private final List<String> lookedUpNames = new ArrayList<>();
+
+  @Test
+  public void shouldCacheResolvedMaterials() {
+    MaterialResolver resolver = makeResolver(16);
+
+    assertEquals(Material.DIAMOND, resolver.resolveCached("DIAMOND"));
+    assertEquals(Material.DIAMOND, resolver.resolveCached("DIAMOND"));
+
+    assertEquals(List.of("DIAMOND"), lookedUpNames);
+  }
+
+  @Test
+  public void shouldCacheUnresolvableNames() {
+    MaterialResolver resolver = makeResolver(16);
+
+    assertNull(resolver.resolveCached("NOT_A_MATERIAL"));
+    assertNull(resolver.resolveCached("NOT_A_MATERIAL"));
+    assertNull(resolver.resolveCached("not a material"));
+
+    assertEquals(List.of("NOT_A_MATERIAL"), lookedUpNames);
+  }
+
+  @Test
+  public void shouldShareResultsOfEquivalentNames() {
+    MaterialResolver resolver = makeResolver(16);
+
+    assertEquals(Material.DIAMOND_SWORD, resolver.resolveCached("diamond_sword"));
+    assertEquals(Material.DIAMOND_SWORD, resolver.resolveCached("  Diamond Sword "));
+    assertEquals(Material.DIAMOND_SWORD, resolver.resolveCached("DIAMOND-SWORD"));
+
+    assertEquals(List.of("diamond_sword"), lookedUpNames);
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedNames() {
+    MaterialResolver resolver = makeResolver(2);
+
+    resolver.resolveCached("DIAMOND");
+    resolver.resolveCached("STONE");
+    resolver.resolveCached("DIAMOND");
+    resolver.resolveCached("DIRT");
+
+    // STONE was used least recently, and thus evicted
+    resolver.resolveCached("DIAMOND");
+    resolver.resolveCached("STONE");
+
+    assertEquals(List.of("DIAMOND", "STONE", "DIRT", "STONE"), lookedUpNames);
+  }
+
+  private MaterialResolver makeResolver(int maxCachedNames) {
+    return new MaterialResolver(name -> {
+      lookedUpNames.add(name);
+
+      for (Material material : Material.values()) {
+        if (material.name().equalsIgnoreCase(name.trim().replace(' ', '_').replace('-', '_')))
+          return Optional.of(material);
+      }
+
+      return Optional.empty();
+    }, maxCachedNames);
+  }
+}